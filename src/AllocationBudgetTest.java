@@ -0,0 +1,125 @@
+import org.junit.*;
+import static org.junit.Assert.*;
+import java.lang.management.ManagementFactory;
+import java.util.function.IntFunction;
+
+/**
+ * Allocation budgets for MatrixMap and Barricade operations at several matrix sizes.
+ * Each budget is the number of bytes the operation may allocate on the calling thread,
+ * measured with com.sun.management.ThreadMXBean and averaged over several calls after warm-up.
+ * Budgets scale with the work the operation is expected to do (e.g. bytes per cell for operations
+ * that snapshot the whole map), so that an accidental extra copy or per-cell allocation fails the run.
+ */
+public class AllocationBudgetTest {
+
+    private static final int[] SIZES = { 4, 16, 32 };
+    private static final int WARMUP = 5;
+    private static final int REPETITIONS = 20;
+
+    /** Fixed allowance for iterators, lambdas and other per-call bookkeeping */
+    private static final long OVERHEAD = 1024;
+
+    private com.sun.management.ThreadMXBean threadBean;
+
+    @Before
+    public void setupThreadBean() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Helper: average bytes allocated by the current thread per call of operation.
+     */
+    private long allocatedBytes(Runnable operation, int repetitions) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < repetitions; i++) {
+            operation.run();
+        }
+        return (threadBean.getThreadAllocatedBytes(threadId) - before) / repetitions;
+    }
+
+    /**
+     * Helper: fails if the operation built for an n x n matrix allocates more than budget(n) bytes per call.
+     */
+    private void assertBudget(String name, IntFunction<Runnable> operation, IntFunction<Long> budget, int repetitions) {
+        for (int n : SIZES) {
+            long allocated = allocatedBytes(operation.apply(n), repetitions);
+            long allowed = budget.apply(n);
+            assertTrue(name + " at " + n + "x" + n + " allocated " + allocated + " bytes, budget is " + allowed,
+                    allocated <= allowed);
+        }
+    }
+
+    private static MatrixMap<Integer> distinct(int n) {
+        return MatrixMap.instance(n, n, i -> i.row() * n + i.column());
+    }
+
+    private static MatrixMap<Integer> rows(int n) {
+        return MatrixMap.instance(n, n, Indexes::row);
+    }
+
+    private static RoamingMap<Indexes, Integer> roamingMap(int n) {
+        RoamingMap<Indexes, Integer> roamingMap = new RoamingMap<>();
+        Indexes.stream(n - 1, n - 1).forEach(indexes -> roamingMap.put(indexes, indexes.row()));
+        return roamingMap;
+    }
+
+    // --- MatrixMap ---
+
+    @Test
+    public void testValue_LinearInCells() {
+        // Barricade snapshots the whole map on every get
+        assertBudget("value (tree)", n -> { MatrixMap<Integer> mm = distinct(n); return () -> mm.value(n - 1, n - 1); },
+                n -> 256L * n * n + OVERHEAD, REPETITIONS);
+        assertBudget("value (run-length)", n -> { MatrixMap<Integer> mm = rows(n); return () -> mm.value(n - 1, n - 1); },
+                n -> 256L * n * n + OVERHEAD, REPETITIONS);
+    }
+
+    @Test
+    public void testSize_IndependentOfCells() {
+        // size is read from the last key, without a snapshot of the map
+        assertBudget("size (tree)", n -> distinct(n)::size, n -> OVERHEAD, REPETITIONS);
+        assertBudget("size (run-length)", n -> rows(n)::size, n -> OVERHEAD, REPETITIONS);
+    }
+
+    @Test
+    public void testConstruction_QuadraticInCells() {
+        // every put is verified against a full snapshot of the map built so far
+        assertBudget("instance (tree)", n -> () -> distinct(n), n -> 256L * n * n * n * n + OVERHEAD, 3);
+        assertBudget("instance (run-length)", n -> () -> rows(n), n -> 256L * n * n * n * n + OVERHEAD, 3);
+    }
+
+    @Test
+    public void testForEach_AllocationFree() {
+        assertBudget("forEach (tree)", n -> { MatrixMap<Integer> mm = distinct(n); return () -> mm.forEach((row, column, value) -> {}); },
+                n -> OVERHEAD, REPETITIONS);
+        assertBudget("forEach (run-length)", n -> { MatrixMap<Integer> mm = rows(n); return () -> mm.forEach((row, column, value) -> {}); },
+                n -> OVERHEAD, REPETITIONS);
+    }
+
+    @Test
+    public void testWith_LogarithmicInCells() {
+        assertBudget("with", n -> { MatrixMap<Integer> mm = rows(n).with(Indexes.ORIGIN, -1); return () -> mm.with(Indexes.ORIGIN, -2); },
+                n -> 2 * OVERHEAD, REPETITIONS);
+    }
+
+    // --- Barricade ---
+
+    @Test
+    public void testBarricade_LinearInEntries() {
+        assertBudget("getWithStateVar", n -> { RoamingMap<Indexes, Integer> rm = roamingMap(n); return () -> Barricade.getWithStateVar(rm, Indexes.ORIGIN); },
+                n -> 256L * n * n + OVERHEAD, REPETITIONS);
+        assertBudget("correctSize", n -> { RoamingMap<Indexes, Integer> rm = roamingMap(n); return () -> Barricade.correctSize(rm); },
+                n -> 128L * n * n + OVERHEAD, REPETITIONS);
+        assertBudget("putWithStateVar", n -> { RoamingMap<Indexes, Integer> rm = roamingMap(n); return () -> Barricade.putWithStateVar(rm, Indexes.ORIGIN, 0); },
+                n -> 512L * n * n + OVERHEAD, REPETITIONS);
+        assertBudget("correctStringRepresentation", n -> { RoamingMap<Indexes, Integer> rm = roamingMap(n); return () -> Barricade.correctStringRepresentation(rm); },
+                n -> 4096L * n * n + OVERHEAD, REPETITIONS);
+    }
+}
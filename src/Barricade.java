@@ -3,89 +3,207 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 // Fixed version of Barricade
+/**
+ * Barricade verifies every operation on a SortedStore against a snapshot of its entries,
+ * recovering the correct result or failing when the store misbehaves
+ */
 public class Barricade {
 
     record StateRecoveryOptional<V>(V value, Exception exception) {}
 
     private static final Logger logger = Logger.getLogger(Barricade.class.getName());
 
-    final static <K extends Comparable<K>, V> StateRecoveryOptional<V> getWithStateVar(RoamingMap<K, V> roamingMap, K key) {
-        Objects.requireNonNull(roamingMap);
+    final static <K extends Comparable<K>, V> StateRecoveryOptional<V> getWithStateVar(SortedStore<K, V> store, K key) {
+        Objects.requireNonNull(store);
         Objects.requireNonNull(key);
-        Map<K, V> copy = new TreeMap<>();
-        copy.putAll(roamingMap);
+        Map<K, V> copy = snapshot(store);
         Set<Map.Entry<K, V>> entrySetBefore = copy.entrySet();
         V prevValue = entrySetBefore.stream()
                                     .filter(entry -> Objects.equals(entry.getKey(), key))
                                     .map(Map.Entry::getValue)
                                     .findFirst()
                                     .orElse(null);
-        V value = roamingMap.get(key);
-        Set<Map.Entry<K, V>> entrySetAfter = correctEntrySet(roamingMap);
+        V value = store.get(key);
+        Set<Map.Entry<K, V>> entrySetAfter = correctEntrySet(store);
         if (!Objects.equals(entrySetBefore, entrySetAfter)) {
-            throw new RuntimeException("get method of RoamingMap operated incorrectly");
+            throw new RuntimeException("get method of SortedStore operated incorrectly");
         }
         if (!Objects.equals(prevValue, value)) {
-            logger.log(Level.WARNING, "get method of RoamingMap returned incorrect value; correct value was used instead");
+            logger.log(Level.WARNING, "get method of SortedStore returned incorrect value; correct value was used instead");
             return new StateRecoveryOptional<>(prevValue, null);
         }
         return new StateRecoveryOptional<>(value, null);
     }
 
-    final static <K extends Comparable<K>, V> int correctSize(RoamingMap<K, V> roamingMap) {
-        Objects.requireNonNull(roamingMap);
-        Set<Map.Entry<K, V>> entrySetBefore = correctEntrySet(roamingMap);
+    final static <K extends Comparable<K>, V> int correctSize(SortedStore<K, V> store) {
+        Objects.requireNonNull(store);
+        Set<Map.Entry<K, V>> entrySetBefore = correctEntrySet(store);
         int prevSize = entrySetBefore.size();
-        int size = roamingMap.size();
-        Set<Map.Entry<K, V>> entrySetAfter = correctEntrySet(roamingMap);
+        int size = store.size();
+        Set<Map.Entry<K, V>> entrySetAfter = correctEntrySet(store);
         if (!Objects.equals(entrySetBefore, entrySetAfter)) {
-            throw new RuntimeException("size method of RoamingMap operated incorrectly");
+            throw new RuntimeException("size method of SortedStore operated incorrectly");
         }
         if (size != prevSize) {
-            logger.log(Level.WARNING, "size method of RoamingMap returned incorrect value; correct value was used instead");
+            logger.log(Level.WARNING, "size method of SortedStore returned incorrect value; correct value was used instead");
         }
         return prevSize;
     }
 
-    final static <K extends Comparable<K>, V> StateRecoveryOptional<V> putWithStateVar(RoamingMap<K, V> roamingMap, K key, V value) {
-        Objects.requireNonNull(roamingMap);
+    final static <K extends Comparable<K>, V> StateRecoveryOptional<V> putWithStateVar(SortedStore<K, V> store, K key, V value) {
+        Objects.requireNonNull(store);
         Objects.requireNonNull(key);
         Objects.requireNonNull(value);
-        Map<K, V> copy = new TreeMap<>();
-        copy.putAll(roamingMap);
+        Map<K, V> copy = snapshot(store);
         copy.put(key, value);
         Set<Map.Entry<K, V>> expectedSet = copy.entrySet();
-        V lastValue = roamingMap.put(key, value);
-        V updatedValue = getWithStateVar(roamingMap, key).value();
-        Set<Map.Entry<K, V>> actualSet = correctEntrySet(roamingMap);
+        V lastValue = store.put(key, value);
+        V updatedValue = getWithStateVar(store, key).value();
+        Set<Map.Entry<K, V>> actualSet = correctEntrySet(store);
         if (Objects.equals(updatedValue, value) && Objects.equals(expectedSet, actualSet)) {
             return new StateRecoveryOptional<>(lastValue, null);
         } else {
-            throw new RuntimeException("put method of RoamingMap operated incorrectly");
+            throw new RuntimeException("put method of SortedStore operated incorrectly");
+        }
+    }
+
+    final static <K extends Comparable<K>, V> Set<K> correctKeySet(SortedStore<K, V> store) {
+        Set<Map.Entry<K, V>> entrySet = correctEntrySet(store);
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<K> iterator() {
+                Iterator<Map.Entry<K, V>> entries = entrySet.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public K next() {
+                        return entries.next().getKey();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entrySet.size();
+            }
+        };
+    }
+
+    /**
+     * Returns a read-only view of the entries of the store, whose entries cannot be used to change the store either
+     */
+    @SuppressWarnings("unchecked")
+    final static <K extends Comparable<K>, V> Set<Map.Entry<K, V>> correctEntrySet(SortedStore<K, V> store) {
+        Objects.requireNonNull(store);
+        if (store instanceof Map<?, ?>) {
+            return Collections.unmodifiableMap((Map<K, V>) store).entrySet();
         }
+        Set<Map.Entry<K, V>> entrySet = store.entrySet();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                Iterator<Map.Entry<K, V>> entries = entrySet.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        return new AbstractMap.SimpleImmutableEntry<>(entries.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entrySet.size();
+            }
+        };
     }
 
-    final static <K extends Comparable<K>, V> Set<K> correctKeySet(RoamingMap<K, V> roamingMap) {
-        return Collections.unmodifiableMap(Objects.requireNonNull(roamingMap)).keySet();
+    /**
+     * Returns the largest key of the store, or null if the store is empty, checking that the key is present
+     * and that no key follows it. The check is local to the key, so that it costs O(log n) rather than
+     * a snapshot of the store; a key that is too small is replaced by walking higherKey to the true last key.
+     */
+    final static <K extends Comparable<K>, V> StateRecoveryOptional<K> correctLastKey(SortedStore<K, V> store) {
+        Objects.requireNonNull(store);
+        K lastKey;
+        try {
+            lastKey = store.lastKey();
+        } catch (NoSuchElementException e) {
+            return new StateRecoveryOptional<>(null, e);
+        }
+        if (lastKey == null || store.get(lastKey) == null) {
+            throw new RuntimeException("lastKey method of SortedStore operated incorrectly");
+        }
+        K nextKey = store.higherKey(lastKey);
+        if (nextKey != null) {
+            logger.log(Level.WARNING, "lastKey method of SortedStore returned incorrect value; correct value was used instead");
+            do {
+                if (nextKey.compareTo(lastKey) <= 0) {
+                    throw new RuntimeException("higherKey method of SortedStore operated incorrectly");
+                }
+                lastKey = nextKey;
+                nextKey = store.higherKey(lastKey);
+            } while (nextKey != null);
+        }
+        return new StateRecoveryOptional<>(lastKey, null);
     }
 
-    final static <K extends Comparable<K>, V> Set<Map.Entry<K, V>> correctEntrySet(RoamingMap<K, V> roamingMap) {
-        return Collections.unmodifiableMap(Objects.requireNonNull(roamingMap)).entrySet();
+    /**
+     * Returns a copy of the entries of the store with keys from fromKey (inclusive) to toKey (exclusive),
+     * checking that every returned key is inside the range and that keys are strictly increasing.
+     * The check only visits the returned entries, so that it costs O(log n + k) rather than a snapshot of the store;
+     * as a consequence it cannot detect a range that silently skips entries of the store.
+     */
+    final static <K extends Comparable<K>, V> List<Map.Entry<K, V>> correctRange(SortedStore<K, V> store, K fromKey, K toKey) {
+        Objects.requireNonNull(store);
+        Objects.requireNonNull(fromKey);
+        Objects.requireNonNull(toKey);
+        List<Map.Entry<K, V>> entries = new ArrayList<>();
+        K previousKey = null;
+        for (Map.Entry<K, V> entry : store.range(fromKey, toKey)) {
+            K key = entry.getKey();
+            if (key.compareTo(fromKey) < 0 || key.compareTo(toKey) >= 0
+                    || (previousKey != null && key.compareTo(previousKey) <= 0) || entry.getValue() == null) {
+                throw new RuntimeException("range method of SortedStore operated incorrectly");
+            }
+            entries.add(Map.entry(key, entry.getValue()));
+            previousKey = key;
+        }
+        return entries;
     }
 
-    final static <K extends Comparable<K>, V> String correctStringRepresentation(RoamingMap<K, V> roamingMap) {
-        Objects.requireNonNull(roamingMap);
+    /**
+     * Returns a TreeMap holding a copy of the entries of the store, taken through a single entrySet call
+     */
+    private static <K extends Comparable<K>, V> Map<K, V> snapshot(SortedStore<K, V> store) {
         Map<K, V> copy = new TreeMap<>();
-        copy.putAll(roamingMap);
+        for (Map.Entry<K, V> entry : store.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+
+    final static <K extends Comparable<K>, V> String correctStringRepresentation(SortedStore<K, V> store) {
+        Objects.requireNonNull(store);
+        Map<K, V> copy = snapshot(store);
         String prevRepresentation = copy.toString();
-        Set<Map.Entry<K, V>> roamingSetBefore = correctEntrySet(roamingMap);
-        String representation = roamingMap.toString();
-        Set<Map.Entry<K, V>> roamingSetAfter = correctEntrySet(roamingMap);
+        Set<Map.Entry<K, V>> roamingSetBefore = correctEntrySet(store);
+        String representation = store.toString();
+        Set<Map.Entry<K, V>> roamingSetAfter = correctEntrySet(store);
         if (!Objects.equals(roamingSetBefore, roamingSetAfter)) {
-            throw new RuntimeException("toString method of RoamingMap operated incorrectly");
+            throw new RuntimeException("toString method of SortedStore operated incorrectly");
         }
         if (!Objects.equals(prevRepresentation, representation)) {
-            logger.log(Level.WARNING, "toString method of RoamingMap returned incorrect value; correct value was used instead");
+            logger.log(Level.WARNING, "toString method of SortedStore returned incorrect value; correct value was used instead");
             return prevRepresentation;
         }
         return representation;
@@ -48,6 +48,22 @@ public class BarricadeTest {
         return rm;
     }
 
+    /**
+     * Helper: A SortedStore over a TreeMap holding entries, that is not itself a Map and so relies on
+     * the default methods of SortedStore.
+     */
+    private static SortedStore<String, String> treeStore(Map<String, String> entries) {
+        TreeMap<String, String> map = new TreeMap<>(entries);
+        return new SortedStore<>() {
+            public String get(Object key) { return map.get(key); }
+            public String put(String key, String value) { return map.put(key, value); }
+            public int size() { return map.size(); }
+            public Set<Map.Entry<String, String>> entrySet() { return map.entrySet(); }
+            public void forEach(java.util.function.BiConsumer<? super String, ? super String> action) { map.forEach(action); }
+            public String lastKey() { return map.lastKey(); }
+        };
+    }
+
     // --- getWithStateVar tests ---
 
     @Test
@@ -71,7 +87,7 @@ public class BarricadeTest {
             Barricade.getWithStateVar(rm, "KEY");
             fail("Expected RuntimeException for changed entry set in get");
         } catch (RuntimeException ex) {
-            assertTrue(ex.getMessage().contains("get method of RoamingMap operated incorrectly"));
+            assertTrue(ex.getMessage().contains("get method of SortedStore operated incorrectly"));
         }
     }
 
@@ -88,7 +104,7 @@ public class BarricadeTest {
         var result = Barricade.getWithStateVar(rm, "K");
         assertEquals("REALVAL", result.value());
         assertTrue(logHandler.getLastLog().isPresent());
-        assertTrue(logHandler.getLastLog().get().contains("get method of RoamingMap returned incorrect value"));
+        assertTrue(logHandler.getLastLog().get().contains("get method of SortedStore returned incorrect value"));
     }
 
     @Test
@@ -123,7 +139,7 @@ public class BarricadeTest {
             Barricade.correctSize(rm);
             fail("Expected RuntimeException for changed entry set in size");
         } catch (RuntimeException ex) {
-            assertTrue(ex.getMessage().contains("size method of RoamingMap operated incorrectly"));
+            assertTrue(ex.getMessage().contains("size method of SortedStore operated incorrectly"));
         }
     }
 
@@ -140,7 +156,7 @@ public class BarricadeTest {
         int result = Barricade.correctSize(rm);
         assertEquals(1, result);
         assertTrue(logHandler.getLastLog().isPresent());
-        assertTrue(logHandler.getLastLog().get().contains("size method of RoamingMap returned incorrect value"));
+        assertTrue(logHandler.getLastLog().get().contains("size method of SortedStore returned incorrect value"));
     }
 
     @Test
@@ -175,7 +191,7 @@ public class BarricadeTest {
             Barricade.correctStringRepresentation(rm);
             fail("Expected RuntimeException for changed entry set in toString");
         } catch (RuntimeException ex) {
-            assertTrue(ex.getMessage().contains("toString method of RoamingMap operated incorrectly"));
+            assertTrue(ex.getMessage().contains("toString method of SortedStore operated incorrectly"));
         }
     }
 
@@ -192,7 +208,7 @@ public class BarricadeTest {
         String result = Barricade.correctStringRepresentation(rm);
         assertTrue(result.contains("K=V"));
         assertTrue(logHandler.getLastLog().isPresent());
-        assertTrue(logHandler.getLastLog().get().contains("toString method of RoamingMap returned incorrect value"));
+        assertTrue(logHandler.getLastLog().get().contains("toString method of SortedStore returned incorrect value"));
     }
 
     @Test
@@ -224,7 +240,7 @@ public class BarricadeTest {
             Barricade.putWithStateVar(rm, "NEW", "VALUE");
             fail("Expected RuntimeException for changed entry set in put");
         } catch (RuntimeException ex) {
-            assertTrue(ex.getMessage().contains("put method of RoamingMap operated incorrectly"));
+            assertTrue(ex.getMessage().contains("put method of SortedStore operated incorrectly"));
         }
     }
 
@@ -241,7 +257,7 @@ public class BarricadeTest {
             Barricade.putWithStateVar(rm, "A", "B");
             fail("Expected RuntimeException due to missing insertion");
         } catch (RuntimeException ex) {
-            assertTrue(ex.getMessage().contains("put method of RoamingMap operated incorrectly"));
+            assertTrue(ex.getMessage().contains("put method of SortedStore operated incorrectly"));
         }
     }
 
@@ -298,7 +314,7 @@ public class BarricadeTest {
         new Barricade();
     }
 
-    // --- Test for "size method of RoamingMap operated incorrectly" ---
+    // --- Test for "size method of SortedStore operated incorrectly" ---
 @Test
 public void testCorrectSize_ChangedEntrySet() {
     Map<String, String> faultyMap = new TreeMap<>() {
@@ -321,11 +337,11 @@ public void testCorrectSize_ChangedEntrySet() {
         Barricade.correctSize(rm);
         fail("Expected RuntimeException for changed entry set in size()");
     } catch (RuntimeException e) {
-        assertTrue(e.getMessage().contains("size method of RoamingMap operated incorrectly"));
+        assertTrue(e.getMessage().contains("size method of SortedStore operated incorrectly"));
     }
 }
 
-// --- Test for "size method of RoamingMap returned incorrect value; correct value was used instead" ---
+// --- Test for "size method of SortedStore returned incorrect value; correct value was used instead" ---
 @Test
 public void testCorrectSize_WrongSizeValue() {
     Map<String, String> faultyMap = new TreeMap<>() {
@@ -342,10 +358,10 @@ public void testCorrectSize_WrongSizeValue() {
     assertEquals(1, correctedSize);
     // Use LoggerTestingHandler (or your own) to check that a warning was logged.
     assertTrue(logHandler.getLastLog().isPresent());
-    assertTrue(logHandler.getLastLog().get().contains("size method of RoamingMap returned incorrect value"));
+    assertTrue(logHandler.getLastLog().get().contains("size method of SortedStore returned incorrect value"));
 }
 
-// --- Test for "toString method of RoamingMap operated incorrectly" ---
+// --- Test for "toString method of SortedStore operated incorrectly" ---
 @Test
 public void testCorrectStringRepresentation_ChangedEntrySet() {
     Map<String, String> faultyMap = new TreeMap<>() {
@@ -368,8 +384,218 @@ public void testCorrectStringRepresentation_ChangedEntrySet() {
         Barricade.correctStringRepresentation(rm);
         fail("Expected RuntimeException for changed entry set in toString()");
     } catch (RuntimeException e) {
-        assertTrue(e.getMessage().contains("toString method of RoamingMap operated incorrectly"));
+        assertTrue(e.getMessage().contains("toString method of SortedStore operated incorrectly"));
     }
 }
 
+    // --- SortedStore implementations other than RoamingMap ---
+
+    @Test
+    public void testBarricadeGuardsGridStore() {
+        SortedStore<Indexes, String> store = new DictionaryMap<>(2, 2);
+        assertNull(Barricade.putWithStateVar(store, new Indexes(1, 0), "A").value());
+        assertEquals("A", Barricade.putWithStateVar(store, new Indexes(1, 0), "B").value());
+        assertEquals("B", Barricade.getWithStateVar(store, new Indexes(1, 0)).value());
+        assertNull(Barricade.getWithStateVar(store, new Indexes(0, 0)).value());
+        assertEquals(1, Barricade.correctSize(store));
+        assertEquals(Set.of(new Indexes(1, 0)), Barricade.correctKeySet(store));
+        assertFalse(logHandler.getLastLog().isPresent());
+    }
+
+    @Test
+    public void testRange_RoamingMapAndGridStore() {
+        RoamingMap<Indexes, Integer> rm = new RoamingMap<>();
+        SortedStore<Indexes, Integer> grid = new RunLengthMap<>(3, 3);
+        Indexes.stream(2, 2).forEach(indexes -> {
+            rm.put(indexes, indexes.row() * 3 + indexes.column());
+            grid.put(indexes, indexes.row() * 3 + indexes.column());
+        });
+        List<Integer> expected = List.of(2, 3, 4, 5, 6);
+        for (SortedStore<Indexes, Integer> store : List.of(rm, grid)) {
+            List<Integer> values = new ArrayList<>();
+            store.range(new Indexes(0, 2), new Indexes(2, 1)).forEach(entry -> values.add(entry.getValue()));
+            assertEquals(expected, values);
+        }
+    }
+
+    @Test
+    public void testRange_DefaultScan() {
+        SortedStore<String, String> store = treeStore(Map.of("A", "1", "B", "2", "C", "3", "D", "4"));
+        List<String> keys = new ArrayList<>();
+        store.range("B", "D").forEach(entry -> keys.add(entry.getKey()));
+        assertEquals(List.of("B", "C"), keys);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCorrectEntrySet_ReadOnly() {
+        RoamingMap<String, String> rm = new RoamingMap<>();
+        rm.put("K", "V");
+        Barricade.correctEntrySet(rm).iterator().next().setValue("W");
+    }
+
+    @Test
+    public void testCorrectEntrySet_ReadOnlyEntriesOfNonMapStore() {
+        SortedStore<String, String> store = treeStore(Map.of("K", "V"));
+        Map.Entry<String, String> entry = Barricade.correctEntrySet(store).iterator().next();
+        try {
+            entry.setValue("MUTATED");
+            fail("Expected UnsupportedOperationException for an entry of the read-only view");
+        } catch (UnsupportedOperationException ex) {
+            assertEquals("V", store.get("K"));
+        }
+        assertEquals(Map.of("K", "V").entrySet(), Barricade.correctEntrySet(store));
+    }
+
+    @Test
+    public void testRange_ReversedBoundsAreEmpty() {
+        RoamingMap<Indexes, String> rm = new RoamingMap<>();
+        GridMap<String> grid = new TrieMap<>(3, 3);
+        for (Indexes indexes : Indexes.stream(2, 2).toList()) {
+            rm.put(indexes, "v");
+            grid.put(indexes, "v");
+        }
+        Indexes from = new Indexes(2, 0);
+        Indexes to = new Indexes(1, 0);
+        assertFalse(rm.range(from, to).iterator().hasNext());
+        assertFalse(grid.range(from, to).iterator().hasNext());
+        assertFalse(treeStore(Map.of("A", "1", "B", "2")).range("B", "A").iterator().hasNext());
+        assertTrue(Barricade.correctRange(rm, from, to).isEmpty());
+    }
+
+    // --- navigation and range tests ---
+
+    @Test
+    public void testRoamingMap_NavigableDelegation() {
+        RoamingMap<Integer, String> rm = new RoamingMap<>();
+        for (int i = 0; i < 10; i += 2) {
+            rm.put(i, "v" + i);
+        }
+        assertEquals((Integer)0, rm.firstKey());
+        assertEquals((Integer)8, rm.lastKey());
+        assertEquals((Integer)4, rm.floorKey(5));
+        assertEquals((Integer)6, rm.ceilingKey(5));
+        assertEquals((Integer)2, rm.lowerKey(4));
+        assertEquals((Integer)6, rm.higherKey(4));
+        assertEquals(List.of(2, 4), new ArrayList<>(rm.subMap(2, 6).keySet()));
+        assertEquals(List.of(8, 6), new ArrayList<>(rm.descendingMap().headMap(5).keySet()));
+        assertEquals("v8", rm.pollLastEntry().getValue());
+        assertEquals("v6", rm.remove(6));
+        assertEquals(3, rm.size());
+        rm.clear();
+        assertTrue(rm.isEmpty());
+    }
+
+    @Test
+    public void testRoamingMap_ViewsAreReadOnly() {
+        RoamingMap<Integer, String> rm = new RoamingMap<>();
+        rm.put(1, "v1");
+        rm.put(3, "v3");
+        List<Runnable> writes = List.of(
+                () -> rm.tailMap(1, true).put(2, null),
+                () -> rm.headMap(3).put(2, "v2"),
+                () -> rm.subMap(0, 5).remove(1),
+                () -> rm.descendingMap().put(2, null),
+                () -> rm.descendingMap().tailMap(3, true).clear(),
+                () -> rm.navigableKeySet().pollFirst(),
+                () -> rm.descendingKeySet().remove(3),
+                () -> rm.tailMap(0, true).firstEntry().setValue(null));
+        for (Runnable write : writes) {
+            try {
+                write.run();
+                fail("Expected UnsupportedOperationException for a write through a view");
+            } catch (UnsupportedOperationException ex) {
+                assertEquals(Map.of(1, "v1", 3, "v3"), rm);
+            }
+        }
+    }
+
+    @Test
+    public void testCorrectLastKey() {
+        RoamingMap<String, String> rm = new RoamingMap<>();
+        assertNull(Barricade.correctLastKey(rm).value());
+        rm.put("A", "1");
+        rm.put("C", "3");
+        assertEquals("C", Barricade.correctLastKey(rm).value());
+    }
+
+    @Test
+    public void testCorrectLastKey_MissingKey() {
+        TreeMap<String, String> fake = new TreeMap<>() {
+            @Override
+            public String lastKey() {
+                return "GHOST";
+            }
+        };
+        fake.put("A", "1");
+        RoamingMap<String, String> rm = inject(fake);
+        try {
+            Barricade.correctLastKey(rm);
+            fail("Expected RuntimeException for a last key that is not in the map");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("lastKey method of SortedStore operated incorrectly"));
+        }
+    }
+
+    @Test
+    public void testCorrectLastKey_ReturnsFirstKey() {
+        TreeMap<String, String> fake = new TreeMap<>() {
+            @Override
+            public String lastKey() {
+                return firstKey();
+            }
+        };
+        fake.put("A", "1");
+        fake.put("B", "2");
+        fake.put("C", "3");
+        RoamingMap<String, String> rm = inject(fake);
+        assertEquals("C", Barricade.correctLastKey(rm).value());
+        assertTrue(logHandler.getLastLog().isPresent());
+        assertTrue(logHandler.getLastLog().get().contains("lastKey method of SortedStore returned incorrect value"));
+    }
+
+    @Test
+    public void testHigherKey_GridStoreAndDefaultScan() {
+        GridMap<String> grid = new TrieMap<>(3, 4);
+        grid.put(new Indexes(0, 1), "A");
+        grid.put(new Indexes(2, 0), "B");
+        assertEquals(new Indexes(0, 1), grid.higherKey(new Indexes(-1, 7)));
+        assertEquals(new Indexes(2, 0), grid.higherKey(new Indexes(0, 1)));
+        assertEquals(new Indexes(2, 0), grid.higherKey(new Indexes(1, 9)));
+        assertNull(grid.higherKey(new Indexes(2, 0)));
+        assertNull(grid.higherKey(new Indexes(5, 0)));
+        SortedStore<String, String> store = treeStore(Map.of("A", "1", "C", "3"));
+        assertEquals("C", store.higherKey("A"));
+        assertEquals("C", store.higherKey("B"));
+        assertNull(store.higherKey("C"));
+    }
+
+    @Test
+    public void testCorrectRange() {
+        RoamingMap<Integer, String> rm = new RoamingMap<>();
+        for (int i = 0; i < 10; i++) {
+            rm.put(i, "v" + i);
+        }
+        List<Map.Entry<Integer, String>> range = Barricade.correctRange(rm, 3, 6);
+        assertEquals(List.of(Map.entry(3, "v3"), Map.entry(4, "v4"), Map.entry(5, "v5")), range);
+    }
+
+    @Test
+    public void testCorrectRange_OutOfRangeKey() {
+        TreeMap<Integer, String> fake = new TreeMap<>() {
+            @Override
+            public NavigableMap<Integer, String> subMap(Integer from, boolean fromInclusive, Integer to, boolean toInclusive) {
+                return this;
+            }
+        };
+        fake.put(1, "A");
+        fake.put(9, "B");
+        RoamingMap<Integer, String> rm = inject(fake);
+        try {
+            Barricade.correctRange(rm, 0, 5);
+            fail("Expected RuntimeException for a range containing a key outside of it");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains("range method of SortedStore operated incorrectly"));
+        }
+    }
+
 }
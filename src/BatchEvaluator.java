@@ -0,0 +1,115 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * BatchEvaluator applies a (possibly blocking) valueMapper to every cell of a matrix concurrently.
+ * Cells are started in row-major order, each on its own thread, through a sliding window of at most
+ * concurrency cells: a new cell starts as soon as the valueMapper of a running one returns. A cell
+ * still running when the timeout has elapsed since its own start is interrupted and reported as
+ * timed out, but keeps its place in the window until its valueMapper actually returns, so that no
+ * more than concurrency valueMappers ever run at once (a valueMapper that ignores interruption,
+ * such as a blocking file read, delays the cells after it rather than adding threads).
+ * Virtual threads are used when the running JVM provides them, platform daemon threads otherwise;
+ * threads are never pooled, as virtual threads are meant to be created per task.
+ */
+final class BatchEvaluator {
+
+    private BatchEvaluator() {
+    }
+
+    /**
+     * Returns the values of all cells of a rows x columns matrix, in row-major order
+     * @throws IllegalArgumentException if concurrency is not positive or timeout is not positive
+     * @throws IllegalStateException if some cells failed or timed out, with one suppressed exception per cell,
+     *         or if the calling thread was interrupted
+     */
+    static <S> List<S> evaluate(int rows, int columns, Function<Indexes, S> valueMapper, int concurrency, Duration timeout) {
+        Objects.requireNonNull(valueMapper);
+        Objects.requireNonNull(timeout);
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive: " + timeout);
+        }
+        List<Indexes> cells = Indexes.stream(rows - 1, columns - 1).toList();
+        List<FutureTask<S>> tasks = new ArrayList<>(cells.size());
+        List<S> values = new ArrayList<>(cells.size());
+        List<Exception> failures = new ArrayList<>();
+        Semaphore permits = new Semaphore(concurrency);
+        ThreadFactory threads = threadFactory();
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(BatchEvaluator::daemonThread);
+        long timeoutNanos = timeout.toNanos();
+        try {
+            for (Indexes indexes : cells) {
+                permits.acquire();
+                FutureTask<S> task = new FutureTask<>(() -> valueMapper.apply(indexes));
+                tasks.add(task);
+                threads.newThread(() -> {
+                    try {
+                        ScheduledFuture<?> deadline = watchdog.schedule(() -> task.cancel(true), timeoutNanos, TimeUnit.NANOSECONDS);
+                        try {
+                            task.run();
+                        } finally {
+                            deadline.cancel(false);
+                        }
+                    } catch (RejectedExecutionException e) {
+                        // The evaluation was abandoned before this cell started
+                    } finally {
+                        // The cell leaves the window only once its valueMapper has returned
+                        permits.release();
+                    }
+                }).start();
+            }
+            // Every cell is either complete or cancelled once its result is available
+            for (int i = 0; i < tasks.size(); i++) {
+                values.add(result(tasks.get(i), cells.get(i), failures));
+            }
+        } catch (InterruptedException e) {
+            tasks.forEach(task -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("construction of the matrix was interrupted", e);
+        } finally {
+            watchdog.shutdownNow();
+        }
+        if (!failures.isEmpty()) {
+            IllegalStateException exception = new IllegalStateException("valueMapper failed for " + failures.size() + " cells");
+            failures.forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return values;
+    }
+
+    private static <S> S result(Future<S> future, Indexes indexes, List<Exception> failures) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            failures.add(new TimeoutException("valueMapper timed out at " + indexes));
+        } catch (ExecutionException e) {
+            failures.add(new RuntimeException("valueMapper failed at " + indexes, e.getCause()));
+        }
+        return null;
+    }
+
+    /**
+     * Returns a factory of virtual threads (Java 21 and later), or of platform daemon threads
+     */
+    private static ThreadFactory threadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return BatchEvaluator::daemonThread;
+        }
+    }
+
+    private static Thread daemonThread(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DictionaryMap is a grid store for matrices with few distinct values: each distinct value instance
+ * is stored once in a dictionary keyed by identity (so that equal but distinct values are never aliased), and each cell stores the small integer code of its value in a
+ * byte array, widened to a short array once there are more than 255 distinct values
+ * @param <T> the type of the values
+ */
+final class DictionaryMap<T> extends GridMap<T> {
+
+    /**
+     * Largest number of distinct values that can be encoded in a short array (code 0 marks an empty cell)
+     */
+    static final int MAX_CARDINALITY = 0xFFFF;
+
+    private static final int BYTE_CARDINALITY = 0xFF;
+
+    private final List<T> dictionary = new ArrayList<>();
+    private final Map<T, Integer> codes = new IdentityHashMap<>();
+    private byte[] byteCodes;
+    private short[] shortCodes;
+
+    DictionaryMap(int rows, int columns) {
+        super(rows, columns);
+        byteCodes = new byte[Math.multiplyExact(rows, columns)];
+    }
+
+    int cardinality() {
+        return dictionary.size();
+    }
+
+    private int position(int row, int column) {
+        return row * columns() + column;
+    }
+
+    @Override
+    T cell(int row, int column) {
+        int position = position(row, column);
+        int code = (byteCodes != null) ? Byte.toUnsignedInt(byteCodes[position]) : Short.toUnsignedInt(shortCodes[position]);
+        return (code == 0) ? null : dictionary.get(code - 1);
+    }
+
+    @Override
+    T setCell(int row, int column, T value) {
+        T previous = cell(row, column);
+        int code = codes.computeIfAbsent(value, newValue -> {
+            if (dictionary.size() == MAX_CARDINALITY) {
+                throw new IllegalStateException("dictionary cannot encode more than " + MAX_CARDINALITY + " values");
+            }
+            dictionary.add(newValue);
+            return dictionary.size();
+        });
+        if (code > BYTE_CARDINALITY && byteCodes != null) {
+            widen();
+        }
+        int position = position(row, column);
+        if (byteCodes != null) {
+            byteCodes[position] = (byte) code;
+        } else {
+            shortCodes[position] = (short) code;
+        }
+        return previous;
+    }
+
+    private void widen() {
+        shortCodes = new short[byteCodes.length];
+        for (int i = 0; i < byteCodes.length; i++) {
+            shortCodes[i] = (short) Byte.toUnsignedInt(byteCodes[i]);
+        }
+        byteCodes = null;
+    }
+}
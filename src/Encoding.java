@@ -0,0 +1,78 @@
+import java.util.*;
+
+/**
+ * Encoding is the storage layout chosen for a MatrixMap at build time, from the number of
+ * distinct value instances and the number of runs of the same instance observed in its rows.
+ * Values are compared by identity, as the compressed layouts store one instance per run or dictionary
+ * entry and must return every cell's own instance
+ */
+enum Encoding {
+
+    /** One RoamingMap tree node per cell; used when no compressed layout is smaller */
+    TREE,
+
+    /** Small integer codes into a dictionary of the distinct values */
+    DICTIONARY,
+
+    /** Runs of the same value in each row */
+    RUN_LENGTH;
+
+    /**
+     * Estimated bytes per cell of the TreeMap layout: one tree entry and one Indexes key
+     */
+    private static final int TREE_CELL_BYTES = 64;
+
+    /**
+     * Estimated bytes per run of the run-length layout: one end column and one reference
+     */
+    private static final int RUN_BYTES = 8;
+
+    /**
+     * Estimated bytes per distinct value of the dictionary layout: list slot and hash map entry
+     */
+    private static final int DICTIONARY_VALUE_BYTES = 48;
+
+    /**
+     * Returns the encoding with the smallest estimated footprint for the given values
+     * @param rows the row count of the matrix
+     * @param columns the column count of the matrix
+     * @param values the values of the matrix in row-major order
+     * @return the encoding with the smallest estimated footprint
+     */
+    static Encoding of(int rows, int columns, List<?> values) {
+        Objects.requireNonNull(values);
+        long cells = (long) rows * columns;
+        long runs = 0;
+        Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (i % columns == 0 || value != values.get(i - 1)) {
+                runs++;
+            }
+            if (distinct.size() <= DictionaryMap.MAX_CARDINALITY) {
+                distinct.add(value);
+            }
+        }
+        // a compressed layout is only considered when values actually repeat (in runs or overall)
+        long treeBytes = cells * TREE_CELL_BYTES;
+        long runLengthBytes = (runs * 2 <= cells) ? runs * RUN_BYTES : Long.MAX_VALUE;
+        long dictionaryBytes = (distinct.size() * 2L <= cells && distinct.size() <= DictionaryMap.MAX_CARDINALITY)
+                ? cells * ((distinct.size() > 0xFF) ? Short.BYTES : Byte.BYTES) + distinct.size() * DICTIONARY_VALUE_BYTES
+                : Long.MAX_VALUE;
+        if (runLengthBytes <= dictionaryBytes && runLengthBytes < treeBytes) {
+            return RUN_LENGTH;
+        }
+        return (dictionaryBytes < treeBytes) ? DICTIONARY : TREE;
+    }
+
+    /**
+     * Returns an empty store of this encoding for a rows x columns matrix
+     */
+    <S> SortedStore<Indexes, S> store(int rows, int columns) {
+        return switch (this) {
+            case TREE -> new RoamingMap<>();
+            case DICTIONARY -> new DictionaryMap<>(rows, columns);
+            case RUN_LENGTH -> new RunLengthMap<>(rows, columns);
+        };
+    }
+}
@@ -0,0 +1,303 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * GridMap is the base of the fixed-dimension, array-backed SortedStores of a MatrixMap: a map
+ * from Indexes inside a rows x columns grid to non-null values, iterated in row-major order
+ * so that it is interchangeable with a RoamingMap keyed by Indexes
+ * @param <T> the type of the values
+ */
+abstract class GridMap<T> extends AbstractMap<Indexes, T> implements SortedStore<Indexes, T> {
+
+    private final int rows;
+    private final int columns;
+    private int count;
+
+    private final Set<Map.Entry<Indexes, T>> entrySet = new EntrySet();
+
+    GridMap(int rows, int columns) {
+        this(rows, columns, 0);
+    }
+
+    /**
+     * Creates a grid that already holds count non-empty cells, such as a new version of a persistent grid
+     */
+    GridMap(int rows, int columns, int count) {
+        this.rows = MatrixMap.InvalidLengthException.requireNonEmpty(MatrixMap.InvalidLengthException.Cause.ROW, rows);
+        this.columns = MatrixMap.InvalidLengthException.requireNonEmpty(MatrixMap.InvalidLengthException.Cause.COLUMN, columns);
+        this.count = count;
+    }
+
+    /**
+     * Returns the value stored at (row, column), or null if the cell is empty
+     * @param row the row, already checked to be in bounds
+     * @param column the column, already checked to be in bounds
+     * @return the value stored at (row, column), or null if the cell is empty
+     */
+    abstract T cell(int row, int column);
+
+    /**
+     * Stores the non-null value at (row, column)
+     * @param row the row, already checked to be in bounds
+     * @param column the column, already checked to be in bounds
+     * @param value the value to store
+     * @return the previous value at (row, column), or null if the cell was empty
+     */
+    abstract T setCell(int row, int column, T value);
+
+    final int rows() {
+        return rows;
+    }
+
+    final int columns() {
+        return columns;
+    }
+
+    final boolean contains(int row, int column) {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    /**
+     * Applies action to every non-empty cell, reading the storage directly.
+     * The default order is row-major; subclasses may visit cells in their storage order instead.
+     */
+    void forEachCell(IndexedConsumer<? super T> action) {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                T value = cell(row, column);
+                if (value != null) {
+                    action.accept(row, column, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies action to every non-empty cell in row-major order, i.e. in key order
+     */
+    @Override
+    public void forEach(BiConsumer<? super Indexes, ? super T> action) {
+        Objects.requireNonNull(action);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                T value = cell(row, column);
+                if (value != null) {
+                    action.accept(new Indexes(row, column), value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public T get(Object key) {
+        Objects.requireNonNull(key);
+        return (key instanceof Indexes indexes && contains(indexes.row(), indexes.column()))
+                ? cell(indexes.row(), indexes.column())
+                : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Stores the value at the given indexes
+     * @throws NullPointerException if key or value is null
+     * @throws IndexOutOfBoundsException if key is outside of the grid
+     */
+    @Override
+    public T put(Indexes key, T value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Objects.checkIndex(key.row(), rows);
+        Objects.checkIndex(key.column(), columns);
+        T previous = setCell(key.row(), key.column(), value);
+        if (previous == null) {
+            count++;
+        }
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public Set<Map.Entry<Indexes, T>> entrySet() {
+        return entrySet;
+    }
+
+    /**
+     * Returns the indexes of the last non-empty cell in row-major order, in O(1) when the last cell is filled
+     * @throws NoSuchElementException if the grid is empty
+     */
+    @Override
+    public Indexes lastKey() {
+        if (count > 0) {
+            for (int position = rows * columns - 1; position >= 0; position--) {
+                if (cell(position / columns, position % columns) != null) {
+                    return new Indexes(position / columns, position % columns);
+                }
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Returns the indexes of the first non-empty cell after key in row-major order, or null if there is none,
+     * in O(1) when that cell is filled
+     */
+    @Override
+    public Indexes higherKey(Indexes key) {
+        int position = clamp(Objects.requireNonNull(key));
+        if (position < rows * columns && key.column() == position % columns && key.row() == position / columns) {
+            position++;
+        }
+        for (; position < rows * columns; position++) {
+            if (cell(position / columns, position % columns) != null) {
+                return new Indexes(position / columns, position % columns);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the entries from fromKey (inclusive) to toKey (exclusive), in row-major order,
+     * visiting only the positions between the two keys
+     */
+    @Override
+    public Iterable<Map.Entry<Indexes, T>> range(Indexes fromKey, Indexes toKey) {
+        int from = clamp(Objects.requireNonNull(fromKey));
+        int to = clamp(Objects.requireNonNull(toKey));
+        return () -> Spliterators.iterator(new CellSpliterator(from, Math.max(from, to)));
+    }
+
+    /**
+     * Returns the row-major position of the first cell not less than indexes, between 0 and rows * columns
+     */
+    private int clamp(Indexes indexes) {
+        if (indexes.row() < 0) {
+            return 0;
+        }
+        if (indexes.row() >= rows) {
+            return rows * columns;
+        }
+        return indexes.row() * columns + Math.max(0, Math.min(indexes.column(), columns));
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<Indexes, T>> {
+
+        @Override
+        public Iterator<Map.Entry<Indexes, T>> iterator() {
+            return new Iterator<>() {
+                private int row = 0;
+                private int column = -1;
+                private T next = advance();
+
+                private T advance() {
+                    while (true) {
+                        if (++column == columns) {
+                            column = 0;
+                            row++;
+                        }
+                        if (row >= rows) {
+                            return null;
+                        }
+                        T value = cell(row, column);
+                        if (value != null) {
+                            return value;
+                        }
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Map.Entry<Indexes, T> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Map.Entry<Indexes, T> entry = new AbstractMap.SimpleImmutableEntry<>(new Indexes(row, column), next);
+                    next = advance();
+                    return entry;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            return object instanceof Map.Entry<?, ?> entry
+                    && entry.getKey() != null
+                    && entry.getValue() != null
+                    && entry.getValue().equals(get(entry.getKey()));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<Indexes, T>> spliterator() {
+            return new CellSpliterator(0, rows * columns);
+        }
+    }
+
+    /**
+     * Spliterator over the row-major positions [position, end) of the grid, split in halves
+     */
+    private final class CellSpliterator implements Spliterator<Map.Entry<Indexes, T>> {
+
+        private int position;
+        private final int end;
+
+        CellSpliterator(int position, int end) {
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<Indexes, T>> action) {
+            while (position < end) {
+                int row = position / columns;
+                int column = position % columns;
+                position++;
+                T value = cell(row, column);
+                if (value != null) {
+                    action.accept(new AbstractMap.SimpleImmutableEntry<>(new Indexes(row, column), value));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<Indexes, T>> trySplit() {
+            int middle = (position + end) >>> 1;
+            if (middle <= position) {
+                return null;
+            }
+            Spliterator<Map.Entry<Indexes, T>> prefix = new CellSpliterator(position, middle);
+            position = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            // a grid without empty cells has exactly one entry per position
+            int sized = (count == rows * columns) ? SIZED | SUBSIZED : 0;
+            return ORDERED | DISTINCT | NONNULL | sized;
+        }
+    }
+}
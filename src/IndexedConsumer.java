@@ -0,0 +1,15 @@
+/**
+ * IndexedConsumer is the operation applied to each cell of a MatrixMap by MatrixMap.forEach
+ * @param <T> the type of the values
+ */
+@FunctionalInterface
+public interface IndexedConsumer<T> {
+
+    /**
+     * Performs this operation on one cell
+     * @param row the row of the cell
+     * @param column the column of the cell
+     * @param value the value of the cell
+     */
+    void accept(int row, int column, T value);
+}
@@ -0,0 +1,46 @@
+/**
+ * Kernels is the set of double[] loops behind NumericKernels. Elementwise kernels write their
+ * result into their target array, which every operand must match in length.
+ */
+interface Kernels {
+
+    /**
+     * Adds operand to target, element by element
+     */
+    void add(double[] target, double[] operand);
+
+    /**
+     * Multiplies target by operand, element by element
+     */
+    void multiply(double[] target, double[] operand);
+
+    /**
+     * Multiplies every element of target by factor
+     */
+    void scale(double[] target, double factor);
+
+    /**
+     * Replaces every element of target by a * b + target, rounded once
+     */
+    void fma(double[] a, double[] b, double[] target);
+
+    /**
+     * Replaces every element of target by its minimum with operand
+     */
+    void min(double[] target, double[] operand);
+
+    /**
+     * Replaces every element of target by its maximum with operand
+     */
+    void max(double[] target, double[] operand);
+
+    /**
+     * Returns the sum of length values starting at from
+     */
+    double sum(double[] values, int from, int length);
+
+    /**
+     * Returns the dot product of length values of a starting at fromA and of b starting at fromB
+     */
+    double dot(double[] a, int fromA, double[] b, int fromB, int length);
+}
@@ -1,5 +1,11 @@
+import java.lang.ref.SoftReference;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class MatrixMap<T> {
 
@@ -22,20 +28,44 @@ public final class MatrixMap<T> {
     }
 
     /**
-     * The underlying matrix data (a RoamingMap from Indexes to T)
+     * The underlying matrix data (a SortedStore from Indexes to T, guarded by Barricade)
      */
-    private final RoamingMap<Indexes, T> matrix;
+    private final SortedStore<Indexes, T> matrix;
 
-    private MatrixMap(RoamingMap<Indexes, T> matrix) {
+    /**
+     * Cached hash code, computed on first use (0 means not yet computed)
+     */
+    private int hash;
+
+    /**
+     * Inverted index from values to positions, built on first use and released under memory pressure
+     */
+    private SoftReference<ValueIndex> index;
+
+    /**
+     * Persistent copy of the storage, made on the first update when the storage is not already a TrieMap.
+     * Volatile, as TrieMap has non-final state and would not be safely published through a data race.
+     */
+    private volatile TrieMap<T> trie;
+
+    private MatrixMap(SortedStore<Indexes, T> matrix) {
         this.matrix = matrix;
     }
 
+    /**
+     * Returns a MatrixMap holding the given row-major cells, built in O(n) without going through Barricade.
+     * The cells must all be non-null.
+     */
+    static <S> MatrixMap<S> fromCells(int rows, int columns, Object[] cells) {
+        return new MatrixMap<>(TrieMap.of(rows, columns, cells));
+    }
+
     /** 
      * Returns a MatrixMap with given rows and columns, using valueMapper to generate values.
      */
     public static <S> MatrixMap<S> instance(int rows, int columns, Function<Indexes, S> valueMapper) {
         Objects.requireNonNull(valueMapper);
-        RoamingMap<Indexes, S> matrix = buildMatrix(rows, columns, valueMapper);
+        SortedStore<Indexes, S> matrix = buildMatrix(rows, columns, valueMapper);
         return new MatrixMap<>(matrix);
     }
 
@@ -45,10 +75,40 @@ public final class MatrixMap<T> {
     public static <S> MatrixMap<S> instance(Indexes size, Function<Indexes, S> valueMapper) {
         Objects.requireNonNull(size);
         Objects.requireNonNull(valueMapper);
-        RoamingMap<Indexes, S> matrix = buildMatrix(size.row(), size.column(), valueMapper);
+        SortedStore<Indexes, S> matrix = buildMatrix(size.row(), size.column(), valueMapper);
         return new MatrixMap<>(matrix);
     }
 
+    /**
+     * Returns a MatrixMap with given rows and columns stored in square tiles of the given tiling,
+     * so that row and column scans of large matrices both stay within a few cache lines.
+     * Values are generated tile by tile.
+     */
+    public static <S> MatrixMap<S> instance(int rows, int columns, Tiling tiling, Function<Indexes, S> valueMapper) {
+        Objects.requireNonNull(tiling);
+        Objects.requireNonNull(valueMapper);
+        SortedStore<Indexes, S> matrix = new TiledMap<>(rows, columns, tiling);
+        fillMatrix(matrix, tiling.stream(rows, columns), valueMapper);
+        return new MatrixMap<>(matrix);
+    }
+
+    /**
+     * Returns a MatrixMap with given rows and columns, evaluating a blocking valueMapper on up to
+     * concurrency cells at once. The matrix is only built once every cell has been evaluated.
+     * A cell that times out keeps its share of concurrency until its valueMapper returns, so a valueMapper
+     * that ignores interruption delays the remaining cells but never raises the number of running valueMappers.
+     * @param timeout the time allowed to each cell, from its own start, before it is interrupted and reported as timed out
+     * @throws IllegalStateException if valueMapper failed or timed out on some cells;
+     *         the failure of each cell is attached as a suppressed exception
+     */
+    public static <S> MatrixMap<S> instance(int rows, int columns, Function<Indexes, S> valueMapper, int concurrency, Duration timeout) {
+        Objects.requireNonNull(valueMapper);
+        InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.ROW, rows);
+        InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.COLUMN, columns);
+        List<S> values = BatchEvaluator.evaluate(rows, columns, valueMapper, concurrency, timeout);
+        return instance(rows, columns, indexes -> values.get(indexes.row() * columns + indexes.column()));
+    }
+
     /**
      * Returns an N x N MatrixMap with all entries equal to the given value.
      */
@@ -74,24 +134,53 @@ public final class MatrixMap<T> {
         Objects.requireNonNull(matrix);
         int rows = InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.ROW, matrix.length);
         int columns = InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.COLUMN, matrix[0].length);
-        RoamingMap<Indexes, S> mapData = buildMatrix(rows, columns, indexes -> indexes.value(matrix));
+        SortedStore<Indexes, S> mapData = buildMatrix(rows, columns, indexes -> indexes.value(matrix));
         return new MatrixMap<>(mapData);
     }
 
     /**
+     * Returns the size of this matrix in O(log n), from its maximum (last) index.
      * @return Indexes with row = number of rows, column = number of columns in this matrix
      */
     public Indexes size() {
-        Iterator<Indexes> iterator = Barricade.correctKeySet(matrix).iterator();
-        // Find the maximum index (largest row and column)
-        Indexes maxIndex = iterator.hasNext() ? iterator.next() : Indexes.ORIGIN;
-        while (iterator.hasNext()) {
-            Indexes current = iterator.next();
-            if (current.compareTo(maxIndex) > 0) {
-                maxIndex = current;
+        Indexes maxIndex = Barricade.correctLastKey(matrix).value();
+        return (maxIndex == null) ? new Indexes(0, 0) : new Indexes(maxIndex.row() + 1, maxIndex.column() + 1);
+    }
+
+    /**
+     * Returns the values of the given row, in column order, in O(log n + columns).
+     * @throws IndexOutOfBoundsException if row is not a row of this matrix
+     */
+    public List<T> row(int row) {
+        Objects.checkIndex(row, size().row());
+        return Barricade.correctRange(matrix, new Indexes(row, 0), new Indexes(row + 1, 0))
+                .stream().map(Map.Entry::getValue).toList();
+    }
+
+    /**
+     * Returns the rectangle of this matrix from the indexes from (inclusive) to the indexes to (exclusive),
+     * reading one range of cells per row, in O(rows * log n + k) for k cells.
+     * @throws NullPointerException if from or to is null
+     * @throws IllegalArgumentException if the rectangle is empty
+     * @throws IndexOutOfBoundsException if the rectangle is not inside this matrix
+     */
+    public MatrixMap<T> subMatrix(Indexes from, Indexes to) {
+        Objects.requireNonNull(from);
+        Objects.requireNonNull(to);
+        int rows = InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.ROW, to.row() - from.row());
+        int columns = InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.COLUMN, to.column() - from.column());
+        Indexes size = size();
+        Objects.checkFromToIndex(from.row(), to.row(), size.row());
+        Objects.checkFromToIndex(from.column(), to.column(), size.column());
+        Object[] cells = new Object[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            Indexes rowFrom = new Indexes(from.row() + row, from.column());
+            Indexes rowTo = new Indexes(from.row() + row, to.column());
+            for (Map.Entry<Indexes, T> entry : Barricade.correctRange(matrix, rowFrom, rowTo)) {
+                cells[row * columns + entry.getKey().column() - from.column()] = entry.getValue();
             }
         }
-        return new Indexes(maxIndex.row() + 1, maxIndex.column() + 1);
+        return fromCells(rows, columns, cells);
     }
 
     /**
@@ -102,6 +191,47 @@ public final class MatrixMap<T> {
         return Barricade.correctStringRepresentation(matrix);
     }
 
+    /**
+     * Two MatrixMaps are equal if they have the same size and equal values at every indexes.
+     * Sizes are compared first; cells are then compared in row-major order until the first difference.
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof MatrixMap<?> other)) {
+            return false;
+        }
+        if (!size().equals(other.size())) {
+            return false;
+        }
+        Iterator<? extends Map.Entry<Indexes, ?>> otherEntries = Barricade.correctEntrySet(other.matrix).iterator();
+        for (Map.Entry<Indexes, T> entry : Barricade.correctEntrySet(matrix)) {
+            Map.Entry<Indexes, ?> otherEntry = otherEntries.next();
+            if (!entry.getKey().equals(otherEntry.getKey()) || !Objects.equals(entry.getValue(), otherEntry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code over the size and values of this matrix, computed once and then cached.
+     */
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = size().hashCode();
+            for (Map.Entry<Indexes, T> entry : Barricade.correctEntrySet(matrix)) {
+                result = 31 * result + Objects.hashCode(entry.getValue());
+            }
+            hash = result;
+        }
+        return result;
+    }
+
     /**
      * Retrieves the value at the given matrix indexes.
      * @param indexes the index pair
@@ -120,19 +250,260 @@ public final class MatrixMap<T> {
     }
 
     /**
-     * Builds the internal matrix (RoamingMap from Indexes to S) of given dimensions using valueMapper.
+     * Returns the indexes of all cells holding value, in row-major order.
+     * The first query builds an inverted index of this matrix in O(n); later queries cost O(1) plus the result size.
+     * @throws NullPointerException if value is null
+     */
+    public List<Indexes> positionsOf(Object value) {
+        return index().indexesOf(Objects.requireNonNull(value));
+    }
+
+    /**
+     * Returns true if some cell of this matrix holds value, false otherwise
+     * @throws NullPointerException if value is null
+     */
+    public boolean contains(Object value) {
+        return count(value) > 0;
+    }
+
+    /**
+     * Returns the number of cells of this matrix holding value
+     * @throws NullPointerException if value is null
+     */
+    public int count(Object value) {
+        return index().count(Objects.requireNonNull(value));
+    }
+
+    /**
+     * Returns the inverted index of this matrix, building it again if it was never built or has been released.
+     * Since the matrix is immutable the index never needs invalidation; concurrent callers may at worst build it twice.
+     */
+    private ValueIndex index() {
+        SoftReference<ValueIndex> reference = index;
+        ValueIndex valueIndex = (reference == null) ? null : reference.get();
+        if (valueIndex == null) {
+            valueIndex = ValueIndex.of(this);
+            index = new SoftReference<>(valueIndex);
+        }
+        return valueIndex;
+    }
+
+    /**
+     * Returns a new MatrixMap equal to this one except for value at the given indexes.
+     * The new matrix shares all untouched storage with this one, so the update costs O(log n)
+     * (the first update of a matrix not already stored as a trie converts its storage once, in O(n),
+     * and later updates of the same matrix reuse that copy).
+     * @throws NullPointerException if indexes or value is null
+     * @throws IndexOutOfBoundsException if indexes is outside of this matrix
      */
-    private static <S> RoamingMap<Indexes, S> buildMatrix(int rows, int columns, Function<Indexes, S> valueMapper) {
+    public MatrixMap<T> with(Indexes indexes, T value) {
+        Objects.requireNonNull(indexes);
+        Objects.requireNonNull(value);
+        return new MatrixMap<>(trie().with(indexes.row(), indexes.column(), value));
+    }
+
+    /**
+     * Returns a new MatrixMap equal to this one except for the given values in the given row,
+     * sharing all other rows' storage with this one.
+     * @throws NullPointerException if values or any of its elements is null
+     * @throws IllegalArgumentException if values does not have one element per column
+     * @throws IndexOutOfBoundsException if row is not a row of this matrix
+     */
+    public MatrixMap<T> withRow(int row, List<? extends T> values) {
+        Objects.requireNonNull(values);
+        TrieMap<T> trie = trie();
+        if (values.size() != trie.columns()) {
+            throw new IllegalArgumentException("row needs " + trie.columns() + " values, got " + values.size());
+        }
+        return new MatrixMap<>(trie.withRange(row, 0, values));
+    }
+
+    /**
+     * Returns the storage of this matrix as a persistent TrieMap, copying it once if it is stored otherwise
+     */
+    private TrieMap<T> trie() {
+        if (matrix instanceof TrieMap<T> stored) {
+            return stored;
+        }
+        TrieMap<T> copy = trie;
+        if (copy == null) {
+            Indexes size = size();
+            copy = TrieMap.copyOf(size.row(), size.column(), matrix);
+            trie = copy;
+        }
+        return copy;
+    }
+
+    /**
+     * Applies action to every cell of this matrix, walking the storage directly without allocating per cell.
+     * Cells are visited in row-major order, except for tiled matrices, which are visited tile by tile.
+     * @throws NullPointerException if action is null
+     */
+    public void forEach(IndexedConsumer<? super T> action) {
+        Objects.requireNonNull(action);
+        if (matrix instanceof GridMap<T> grid) {
+            grid.forEachCell(action);
+        } else {
+            matrix.forEach((indexes, value) -> action.accept(indexes.row(), indexes.column(), value));
+        }
+    }
+
+    /**
+     * Returns a splittable Spliterator over the cells of this matrix, in row-major order
+     */
+    public Spliterator<Map.Entry<Indexes, T>> cells() {
+        return Barricade.correctEntrySet(matrix).spliterator();
+    }
+
+    /**
+     * Returns a sequential stream over the cells of this matrix, in row-major order;
+     * call parallel() on it to process row-major blocks of cells on several cores
+     */
+    public Stream<Map.Entry<Indexes, T>> stream() {
+        return StreamSupport.stream(cells(), false);
+    }
+
+    /**
+     * Returns the combination of all values of this matrix in row-major order, computed in parallel over row blocks.
+     * @param combiner an associative function combining two values
+     * @throws NullPointerException if combiner is null
+     */
+    @SuppressWarnings("unchecked")
+    public T reduce(BinaryOperator<T> combiner) {
+        Objects.requireNonNull(combiner);
+        Object[] values = values();
+        int columns = size().column();
+        return RowBlockTask.invoke(values.length / columns, columns, (fromRow, toRow) -> {
+            T result = (T) values[fromRow * columns];
+            for (int i = fromRow * columns + 1; i < toRow * columns; i++) {
+                result = combiner.apply(result, (T) values[i]);
+            }
+            return result;
+        }, combiner);
+    }
+
+    /**
+     * Returns the fold of all values of this matrix in row-major order, computed in parallel over row blocks:
+     * each block is folded from identity with accumulator, and the results of blocks are merged with combiner.
+     * @param identity the identity of combiner
+     * @param accumulator an associative function folding a value into a result
+     * @param combiner an associative function combining two results, compatible with accumulator
+     * @throws NullPointerException if accumulator or combiner is null
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R fold(R identity, BiFunction<R, ? super T, R> accumulator, BinaryOperator<R> combiner) {
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        Object[] values = values();
+        int columns = size().column();
+        return RowBlockTask.invoke(values.length / columns, columns, (fromRow, toRow) -> {
+            R result = identity;
+            for (int i = fromRow * columns; i < toRow * columns; i++) {
+                result = accumulator.apply(result, (T) values[i]);
+            }
+            return result;
+        }, combiner);
+    }
+
+    /**
+     * Returns the single-column MatrixMap whose row i is the combination of the values of row i, in column order.
+     * @param combiner an associative function combining two values
+     * @throws NullPointerException if combiner is null
+     */
+    @SuppressWarnings("unchecked")
+    public MatrixMap<T> reduceRows(BinaryOperator<T> combiner) {
+        Objects.requireNonNull(combiner);
+        Object[] values = values();
+        int columns = size().column();
+        Object[] results = new Object[values.length / columns];
+        RowBlockTask.invoke(results.length, columns, (fromRow, toRow) -> {
+            for (int row = fromRow; row < toRow; row++) {
+                T result = (T) values[row * columns];
+                for (int i = row * columns + 1; i < (row + 1) * columns; i++) {
+                    result = combiner.apply(result, (T) values[i]);
+                }
+                results[row] = result;
+            }
+            return null;
+        }, (first, second) -> null);
+        return fromCells(results.length, 1, results);
+    }
+
+    /**
+     * Returns the single-row MatrixMap whose column j is the combination of the values of column j, in row order.
+     * @param combiner an associative function combining two values
+     * @throws NullPointerException if combiner is null
+     */
+    @SuppressWarnings("unchecked")
+    public MatrixMap<T> reduceColumns(BinaryOperator<T> combiner) {
+        Objects.requireNonNull(combiner);
+        Object[] values = values();
+        int columns = size().column();
+        Object[] results = RowBlockTask.invoke(values.length / columns, columns, (fromRow, toRow) -> {
+            Object[] block = Arrays.copyOfRange(values, fromRow * columns, (fromRow + 1) * columns);
+            for (int row = fromRow + 1; row < toRow; row++) {
+                for (int column = 0, i = row * columns; column < columns; column++, i++) {
+                    block[column] = combiner.apply((T) block[column], (T) values[i]);
+                }
+            }
+            return block;
+        }, (first, second) -> {
+            for (int column = 0; column < columns; column++) {
+                first[column] = combiner.apply((T) first[column], (T) second[column]);
+            }
+            return first;
+        });
+        return fromCells(1, columns, results);
+    }
+
+    /**
+     * Returns the values of this matrix as a row-major array, reading the storage once.
+     */
+    private Object[] values() {
+        Indexes size = size();
+        int columns = size.column();
+        Object[] values = new Object[size.row() * columns];
+        forEach((row, column, value) -> values[row * columns + column] = value);
+        return values;
+    }
+
+    /**
+     * Returns the values of this numeric matrix as a row-major array, reading the storage once.
+     * @throws ClassCastException if the values are not Numbers
+     */
+    double[] doubles() {
+        Indexes size = size();
+        int columns = size.column();
+        double[] values = new double[size.row() * columns];
+        forEach((row, column, value) -> values[row * columns + column] = ((Number) value).doubleValue());
+        return values;
+    }
+
+    /**
+     * Builds the internal matrix (SortedStore from Indexes to S) of given dimensions using valueMapper.
+     * All values are generated first, so that the storage Encoding can be chosen from them.
+     */
+    private static <S> SortedStore<Indexes, S> buildMatrix(int rows, int columns, Function<Indexes, S> valueMapper) {
         int rowsNumber = InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.ROW, rows);
         int columnsNumber = InvalidLengthException.requireNonEmpty(InvalidLengthException.Cause.COLUMN, columns);
-        RoamingMap<Indexes, S> matrix = new RoamingMap<>();
-        // Populate all indices from (0,0) to (rowsNumber-1, columnsNumber-1)
-        Indexes.stream(rowsNumber - 1, columnsNumber - 1).forEach(indexes -> {
-            S value = valueMapper.apply(indexes);
-            Barricade.putWithStateVar(matrix, indexes, value);
-        });
+        // Generate all values from (0,0) to (rowsNumber-1, columnsNumber-1)
+        List<S> values = Indexes.stream(rowsNumber - 1, columnsNumber - 1).map(valueMapper).toList();
+        Encoding encoding = Encoding.of(rowsNumber, columnsNumber, values);
+        SortedStore<Indexes, S> matrix = encoding.store(rowsNumber, columnsNumber);
+        fillMatrix(matrix, Indexes.stream(rowsNumber - 1, columnsNumber - 1),
+                indexes -> values.get(indexes.row() * columnsNumber + indexes.column()));
         return matrix;
     }
+
+    /**
+     * Puts the value generated by valueMapper at each of the given indexes, in stream order.
+     */
+    private static <S> void fillMatrix(SortedStore<Indexes, S> matrix, Stream<Indexes> indexes, Function<Indexes, S> valueMapper) {
+        indexes.forEach(index -> {
+            S value = valueMapper.apply(index);
+            Barricade.putWithStateVar(matrix, index, value);
+        });
+    }
     static {
         System.out.println("MATRIXMAP CLASS LOADED");
     }
@@ -1,7 +1,11 @@
 import org.junit.*;
 import static org.junit.Assert.*;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MatrixMapTest {
 
@@ -160,4 +164,583 @@ public class MatrixMapTest {
         MatrixMap<String> mm = MatrixMap.constant(1, "Test");
         assertEquals("Test", mm.value(0,0));
     }
+
+    @Test
+    public void testEquals_SameValues() {
+        MatrixMap<Integer> a = MatrixMap.from(new Integer[][] { {1,2}, {3,4} });
+        MatrixMap<Integer> b = MatrixMap.instance(2, 2, i -> i.row() * 2 + i.column() + 1);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(a, a);
+    }
+
+    @Test
+    public void testEquals_DifferentCell() {
+        MatrixMap<Integer> a = MatrixMap.identity(3, 0, 1);
+        MatrixMap<Integer> b = MatrixMap.instance(3, 3, i -> (i.row() == 2 && i.column() == 2) ? 0 : (i.areDiagonal() ? 1 : 0));
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    public void testEquals_DifferentSize() {
+        assertNotEquals(MatrixMap.constant(2, 7), MatrixMap.constant(3, 7));
+        assertNotEquals(MatrixMap.instance(1, 4, i -> 7), MatrixMap.instance(4, 1, i -> 7));
+    }
+
+    @Test
+    public void testEquals_OtherType() {
+        MatrixMap<String> mm = MatrixMap.constant(1, "X");
+        assertNotEquals(mm, "X");
+        assertNotEquals(mm, null);
+    }
+
+    @Test
+    public void testHashCode_UsableAsKey() {
+        Set<MatrixMap<String>> set = new HashSet<>();
+        set.add(MatrixMap.constant(2, "X"));
+        set.add(MatrixMap.constant(2, "X"));
+        set.add(MatrixMap.constant(2, "Y"));
+        assertEquals(2, set.size());
+        MatrixMap<String> mm = MatrixMap.constant(2, "X");
+        assertEquals(mm.hashCode(), mm.hashCode());
+    }
+
+    @Test
+    public void testInstanceTiled_MatchesRowMajor() {
+        MatrixMap<Integer> tiled = MatrixMap.instance(5, 7, new Tiling(2), i -> i.row() * 7 + i.column());
+        MatrixMap<Integer> plain = MatrixMap.instance(5, 7, i -> i.row() * 7 + i.column());
+        assertEquals((Integer)33, tiled.value(4, 5));
+        assertEquals(new Indexes(5, 7), tiled.size());
+        assertEquals(plain, tiled);
+        assertEquals(plain.toString(), tiled.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInstanceTiled_ZeroRows() {
+        MatrixMap.instance(0, 3, Tiling.DEFAULT, i -> 1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testInstanceTiled_NullTiling() {
+        MatrixMap.instance(2, 2, null, i -> 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTiling_NonPositiveSize() {
+        new Tiling(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTiling_SizeOverflowingArray() {
+        new Tiling(70000);
+    }
+
+    @Test
+    public void testInstanceTiled_TileLargerThanMatrix() {
+        MatrixMap<Integer> tiled = MatrixMap.instance(2, 3, new Tiling(Tiling.MAX_SIZE), i -> i.row() * 3 + i.column());
+        assertEquals(MatrixMap.instance(2, 3, i -> i.row() * 3 + i.column()), tiled);
+        TiledMap<Integer> edges = new TiledMap<>(5, 7, new Tiling(4));
+        Indexes.stream(4, 6).forEach(i -> edges.put(i, i.row() * 7 + i.column()));
+        assertEquals((Integer)34, edges.get(new Indexes(4, 6)));
+        assertEquals((Integer)19, edges.get(new Indexes(2, 5)));
+        assertEquals(35, edges.size());
+    }
+
+    @Test
+    public void testTiling_Translation() {
+        Tiling tiling = new Tiling(4);
+        assertEquals(new Indexes(1, 2), tiling.tile(new Indexes(5, 9)));
+        assertEquals(5, tiling.offset(new Indexes(5, 9)));
+        assertEquals(3, tiling.tiles(9));
+        assertTrue(tiling.comparator().compare(new Indexes(3, 3), new Indexes(0, 4)) < 0);
+    }
+
+    @Test
+    public void testTiling_StreamIsBlockOrdered() {
+        List<Indexes> order = new Tiling(2).stream(3, 3).toList();
+        assertEquals(9, order.size());
+        assertEquals(List.of(new Indexes(0, 0), new Indexes(0, 1), new Indexes(1, 0), new Indexes(1, 1),
+                new Indexes(0, 2), new Indexes(1, 2), new Indexes(2, 0), new Indexes(2, 1), new Indexes(2, 2)), order);
+    }
+
+    @Test
+    public void testNumericKernels_Elementwise() {
+        MatrixMap<Integer> a = MatrixMap.from(new Integer[][] { {1,-2,3}, {4,5,-6} });
+        MatrixMap<Double> b = MatrixMap.from(new Double[][] { {0.5,2.0,-1.0}, {1.0,-5.0,2.0} });
+        assertEquals(MatrixMap.from(new Double[][] { {1.5,0.0,2.0}, {5.0,0.0,-4.0} }), NumericKernels.add(a, b));
+        assertEquals(MatrixMap.from(new Double[][] { {0.5,-4.0,-3.0}, {4.0,-25.0,-12.0} }), NumericKernels.multiply(a, b));
+        assertEquals(MatrixMap.from(new Double[][] { {2.0,-4.0,6.0}, {8.0,10.0,-12.0} }), NumericKernels.scale(a, 2));
+        assertEquals(MatrixMap.from(new Double[][] { {1.5,-6.0,0.0}, {8.0,-20.0,-18.0} }), NumericKernels.fma(a, b, a));
+        assertEquals(MatrixMap.from(new Double[][] { {0.5,-2.0,-1.0}, {1.0,-5.0,-6.0} }), NumericKernels.min(a, b));
+        assertEquals(MatrixMap.from(new Double[][] { {1.0,2.0,3.0}, {4.0,5.0,2.0} }), NumericKernels.max(a, b));
+    }
+
+    @Test
+    public void testNumericKernels_Reductions() {
+        MatrixMap<Integer> a = MatrixMap.instance(3, 9, i -> i.row() * 9 + i.column());
+        assertEquals(351.0, NumericKernels.sum(a), 0.0);
+        // row 1 is 9..17, row 2 is 18..26
+        double expected = 0;
+        for (int j = 0; j < 9; j++) {
+            expected += (9 + j) * (18 + j);
+        }
+        assertEquals(expected, NumericKernels.dot(a, 1, a, 2), 0.0);
+    }
+
+    @Test
+    public void testNumericKernels_SelectedMatchesScalar() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vectorModule ? "VectorKernels" : "ScalarKernels", NumericKernels.KERNELS.getClass().getName());
+        Kernels scalar = new ScalarKernels();
+        Random random = new Random(293);
+        for (int length : new int[] { 1, 3, 7, 17, 1001 }) {
+            double[] a = random.doubles(length, -1, 1).toArray();
+            double[] b = random.doubles(length, -1, 1).toArray();
+            for (int kernel = 0; kernel < 6; kernel++) {
+                double[] expected = a.clone();
+                double[] actual = a.clone();
+                for (Kernels kernels : List.of(scalar, NumericKernels.KERNELS)) {
+                    double[] target = (kernels == scalar) ? expected : actual;
+                    switch (kernel) {
+                        case 0 -> kernels.add(target, b);
+                        case 1 -> kernels.multiply(target, b);
+                        case 2 -> kernels.scale(target, 0.5);
+                        case 3 -> kernels.fma(b, b, target);
+                        case 4 -> kernels.min(target, b);
+                        default -> kernels.max(target, b);
+                    }
+                }
+                assertArrayEquals(expected, actual, 0.0);
+            }
+            assertEquals(scalar.sum(a, 1, length - 1), NumericKernels.KERNELS.sum(a, 1, length - 1), 1e-9);
+            assertEquals(scalar.dot(a, 0, b, 0, length), NumericKernels.KERNELS.dot(a, 0, b, 0, length), 1e-9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNumericKernels_SizeMismatch() {
+        NumericKernels.add(MatrixMap.constant(2, 1), MatrixMap.constant(3, 1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNumericKernels_DotRowOutOfBounds() {
+        NumericKernels.dot(MatrixMap.constant(2, 1), 2, MatrixMap.constant(2, 1), 0);
+    }
+
+    @Test
+    public void testInstanceConcurrent_MatchesSerial() {
+        MatrixMap<String> concurrent = MatrixMap.instance(3, 4, i -> i.row() + ":" + i.column(), 5, Duration.ofSeconds(10));
+        assertEquals(MatrixMap.instance(3, 4, i -> i.row() + ":" + i.column()), concurrent);
+    }
+
+    @Test
+    public void testInstanceConcurrent_AggregatesFailures() {
+        try {
+            MatrixMap.instance(2, 3, i -> {
+                if (i.areDiagonal()) {
+                    throw new UnsupportedOperationException("diagonal");
+                }
+                return 1;
+            }, 2, Duration.ofSeconds(10));
+            fail("Expected IllegalStateException for failing cells");
+        } catch (IllegalStateException ex) {
+            assertEquals(2, ex.getSuppressed().length);
+            assertTrue(ex.getSuppressed()[0].getCause() instanceof UnsupportedOperationException);
+        }
+    }
+
+    @Test
+    public void testInstanceConcurrent_CancelsSlowCells() {
+        try {
+            MatrixMap.instance(1, 2, i -> {
+                if (i.column() == 1) {
+                    try {
+                        Thread.sleep(60_000);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return 1;
+            }, 2, Duration.ofMillis(100));
+            fail("Expected IllegalStateException for timed out cell");
+        } catch (IllegalStateException ex) {
+            assertEquals(1, ex.getSuppressed().length);
+            assertTrue(ex.getSuppressed()[0] instanceof java.util.concurrent.TimeoutException);
+        }
+    }
+
+    @Test
+    public void testInstanceConcurrent_SlidingWindow() {
+        // With fixed batches, (0,0) would hold its batch back until it times out, so the last cell would never start
+        CountDownLatch lastCell = new CountDownLatch(1);
+        MatrixMap<Integer> matrix = MatrixMap.instance(3, 3, i -> {
+            if (i.row() == 0 && i.column() == 0) {
+                try {
+                    assertTrue(lastCell.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            } else if (i.row() == 2 && i.column() == 2) {
+                lastCell.countDown();
+            }
+            return i.row() * 3 + i.column();
+        }, 2, Duration.ofSeconds(30));
+        assertEquals(MatrixMap.instance(3, 3, i -> i.row() * 3 + i.column()), matrix);
+    }
+
+    @Test
+    public void testInstanceConcurrent_BoundsRunningCells() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        MatrixMap.instance(4, 5, i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            running.decrementAndGet();
+            return 1;
+        }, 3, Duration.ofSeconds(10));
+        assertTrue(maxRunning.get() <= 3);
+        assertTrue(maxRunning.get() >= 1);
+    }
+
+    @Test
+    public void testInstanceConcurrent_TimedOutCellKeepsItsPlace() {
+        // (0,0) ignores interruption: the other cells must wait for it instead of running alongside it
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try {
+            MatrixMap.instance(1, 4, i -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                if (i.column() == 0) {
+                    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                }
+                running.decrementAndGet();
+                return 1;
+            }, 1, Duration.ofMillis(50));
+            fail("Expected IllegalStateException for timed out cell");
+        } catch (IllegalStateException ex) {
+            assertEquals(1, ex.getSuppressed().length);
+            assertTrue(ex.getSuppressed()[0] instanceof java.util.concurrent.TimeoutException);
+        }
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInstanceConcurrent_InvalidConcurrency() {
+        MatrixMap.instance(2, 2, i -> 1, 0, Duration.ofSeconds(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInstanceConcurrent_InvalidTimeout() {
+        MatrixMap.instance(2, 2, i -> 1, 1, Duration.ZERO);
+    }
+
+    @Test
+    public void testEncoding_ChosenFromValues() {
+        assertEquals(Encoding.RUN_LENGTH, Encoding.of(2, 4, List.of(1, 1, 1, 1, 2, 2, 2, 2)));
+        List<Integer> alternating = Indexes.stream(3, 63).map(i -> (i.row() + i.column()) % 2).toList();
+        assertEquals(Encoding.DICTIONARY, Encoding.of(4, 64, alternating));
+        assertEquals(Encoding.TREE, Encoding.of(1, 4, List.of(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void testEncoding_CompressedMatricesMatchTree() {
+        MatrixMap<String> runs = MatrixMap.instance(4, 50, i -> i.column() < 25 ? "L" : "R");
+        MatrixMap<String> codes = MatrixMap.instance(4, 50, i -> (i.row() + i.column()) % 2 == 0 ? "E" : "O");
+        assertEquals("R", runs.value(3, 25));
+        assertEquals("L", runs.value(3, 24));
+        assertEquals("O", codes.value(1, 0));
+        assertEquals(new Indexes(4, 50), runs.size());
+        assertEquals(MatrixMap.instance(4, 50, new Tiling(8), i -> i.column() < 25 ? "L" : "R"), runs);
+        assertEquals(MatrixMap.instance(4, 50, new Tiling(8), i -> (i.row() + i.column()) % 2 == 0 ? "E" : "O"), codes);
+    }
+
+    @Test
+    public void testEncoding_EqualValuesAreNotAliased() {
+        MatrixMap<List<Integer>> lists = MatrixMap.instance(4, 4, i -> new ArrayList<>());
+        lists.value(0, 0).add(42);
+        assertEquals(List.of(), lists.value(0, 3));
+        MatrixMap<Integer> boxes = MatrixMap.instance(4, 64, i -> Integer.valueOf(1000 + i.column() % 2));
+        assertNotSame(boxes.value(0, 0), boxes.value(0, 2));
+        assertNotSame(boxes.value(0, 0), boxes.value(1, 0));
+        Integer shared = 1000;
+        assertEquals(Encoding.RUN_LENGTH, Encoding.of(2, 4, Collections.nCopies(8, shared)));
+        assertEquals(Encoding.TREE, Encoding.of(2, 4, Indexes.stream(1, 3).map(i -> Integer.valueOf(1000)).toList()));
+    }
+
+    @Test
+    public void testDictionaryMap_WidensCodes() {
+        DictionaryMap<Integer> map = new DictionaryMap<>(2, 300);
+        for (int column = 0; column < 300; column++) {
+            map.put(new Indexes(0, column), column);
+        }
+        assertEquals(300, map.cardinality());
+        assertEquals((Integer)299, map.get(new Indexes(0, 299)));
+        assertEquals((Integer)7, map.put(new Indexes(0, 7), 8));
+        assertEquals((Integer)8, map.get(new Indexes(0, 7)));
+        assertNull(map.get(new Indexes(1, 0)));
+        assertEquals(300, map.size());
+    }
+
+    @Test
+    public void testRunLengthMap_OutOfOrderPuts() {
+        RunLengthMap<String> map = new RunLengthMap<>(2, 6);
+        map.put(new Indexes(0, 0), "A");
+        map.put(new Indexes(0, 1), "A");
+        map.put(new Indexes(0, 4), "B");
+        assertNull(map.get(new Indexes(0, 2)));
+        assertEquals("A", map.put(new Indexes(0, 1), "C"));
+        map.put(new Indexes(0, 2), "B");
+        map.put(new Indexes(0, 3), "B");
+        assertEquals(3, map.runs());
+        assertEquals("{Indexes[row=0, column=0]=A, Indexes[row=0, column=1]=C, Indexes[row=0, column=2]=B, "
+                + "Indexes[row=0, column=3]=B, Indexes[row=0, column=4]=B}", map.toString());
+        assertEquals(5, map.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGridMap_PutOutOfBounds() {
+        new RunLengthMap<String>(2, 2).put(new Indexes(0, 2), "A");
+    }
+
+    @Test
+    public void testForEach_VisitsEveryCell() {
+        List<MatrixMap<Integer>> matrices = List.of(
+                MatrixMap.instance(3, 5, i -> i.row() * 5 + i.column()),
+                MatrixMap.instance(3, 40, i -> i.column() / 20),
+                MatrixMap.instance(3, 40, i -> (i.row() + i.column()) % 3),
+                MatrixMap.instance(3, 5, new Tiling(2), i -> i.row() * 5 + i.column()));
+        for (MatrixMap<Integer> mm : matrices) {
+            Map<Indexes, Integer> visited = new TreeMap<>();
+            mm.forEach((row, column, value) -> assertNull(visited.put(new Indexes(row, column), value)));
+            assertEquals(mm.size().row() * mm.size().column(), visited.size());
+            visited.forEach((indexes, value) -> assertEquals(mm.value(indexes), value));
+        }
+    }
+
+    @Test
+    public void testForEach_TiledOrder() {
+        List<Indexes> order = new ArrayList<>();
+        MatrixMap.instance(3, 3, new Tiling(2), i -> 0).forEach((row, column, value) -> order.add(new Indexes(row, column)));
+        assertEquals(new Tiling(2).stream(3, 3).toList(), order);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testForEach_NullAction() {
+        MatrixMap.constant(2, 1).forEach(null);
+    }
+
+    @Test
+    public void testStream_ParallelReduction() {
+        MatrixMap<Integer> runs = MatrixMap.instance(20, 50, i -> i.row());
+        MatrixMap<Integer> tree = MatrixMap.instance(20, 50, i -> i.row() * 50 + i.column());
+        assertEquals(20 * 50, runs.stream().parallel().count());
+        assertEquals(9500, runs.stream().parallel().mapToInt(Map.Entry::getValue).sum());
+        assertEquals(999 * 1000 / 2, tree.stream().parallel().mapToInt(Map.Entry::getValue).sum());
+        assertEquals(new Indexes(0, 1), tree.stream().skip(1).findFirst().get().getKey());
+    }
+
+    @Test
+    public void testCells_Splits() {
+        Spliterator<Map.Entry<Indexes, Integer>> cells = MatrixMap.instance(4, 50, i -> i.column() / 10).cells();
+        assertTrue(cells.hasCharacteristics(Spliterator.SIZED));
+        Spliterator<Map.Entry<Indexes, Integer>> prefix = cells.trySplit();
+        assertNotNull(prefix);
+        assertEquals(100, prefix.estimateSize());
+        assertEquals(100, cells.estimateSize());
+    }
+
+    @Test
+    public void testWith_LeavesOriginalUnchanged() {
+        MatrixMap<Integer> original = MatrixMap.instance(40, 40, i -> i.row() * 40 + i.column());
+        MatrixMap<Integer> first = original.with(new Indexes(39, 39), -1);
+        MatrixMap<Integer> second = first.with(new Indexes(0, 0), -2);
+        assertEquals((Integer)1599, original.value(39, 39));
+        assertEquals((Integer)(-1), first.value(39, 39));
+        assertEquals((Integer)0, first.value(0, 0));
+        assertEquals((Integer)(-2), second.value(0, 0));
+        assertEquals((Integer)(-1), second.value(39, 39));
+        assertEquals(new Indexes(40, 40), second.size());
+        assertEquals(MatrixMap.instance(40, 40, i -> i.equals(new Indexes(39, 39)) ? -1 : i.row() * 40 + i.column()), first);
+    }
+
+    @Test
+    public void testWith_RepeatedUpdatesOfSameMatrixAreIndependent() {
+        MatrixMap<Integer> original = MatrixMap.instance(40, 40, i -> i.row() * 40 + i.column());
+        MatrixMap<Integer> first = original.with(new Indexes(1, 1), -1);
+        MatrixMap<Integer> second = original.with(new Indexes(2, 2), -2);
+        MatrixMap<Integer> third = original.withRow(3, Collections.nCopies(40, -3));
+        assertEquals((Integer)(-1), first.value(1, 1));
+        assertEquals((Integer)82, first.value(2, 2));
+        assertEquals((Integer)41, second.value(1, 1));
+        assertEquals((Integer)(-2), second.value(2, 2));
+        assertEquals((Integer)41, third.value(1, 1));
+        assertEquals((Integer)(-3), third.value(3, 0));
+        assertEquals((Integer)82, original.value(2, 2));
+    }
+
+    @Test
+    public void testWithRow_ReplacesOneRow() {
+        MatrixMap<String> original = MatrixMap.constant(3, "X");
+        MatrixMap<String> updated = original.withRow(1, List.of("A", "B", "C")).withRow(2, List.of("D", "E", "F"));
+        assertEquals(MatrixMap.from(new String[][] { {"X","X","X"}, {"A","B","C"}, {"D","E","F"} }), updated);
+        assertEquals(MatrixMap.constant(3, "X"), original);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testWith_OutOfBounds() {
+        MatrixMap.constant(2, "X").with(new Indexes(2, 0), "Y");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testWith_NullValue() {
+        MatrixMap.constant(2, "X").with(Indexes.ORIGIN, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithRow_WrongLength() {
+        MatrixMap.constant(2, "X").withRow(0, List.of("A"));
+    }
+
+    @Test
+    public void testTrieMap_RangeAcrossLeaves() {
+        TrieMap<Integer> empty = new TrieMap<>(50, 50);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(i);
+        }
+        TrieMap<Integer> trie = empty.withRange(10, 20, values);
+        assertEquals(100, trie.size());
+        assertEquals(0, empty.size());
+        assertEquals((Integer)0, trie.get(new Indexes(10, 20)));
+        assertEquals((Integer)99, trie.get(new Indexes(12, 19)));
+        assertNull(trie.get(new Indexes(12, 20)));
+        assertNull(empty.get(new Indexes(10, 20)));
+    }
+
+    @Test
+    public void testReduce_WholeMatrix() {
+        MatrixMap<Integer> mm = MatrixMap.instance(30, 7, i -> i.row() * 7 + i.column());
+        assertEquals((Integer)(210 * 209 / 2), mm.reduce(Integer::sum));
+        // concatenation is associative but not commutative, so the row-major order is observable
+        MatrixMap<String> letters = MatrixMap.from(new String[][] { {"a","b"}, {"c","d"} });
+        assertEquals("abcd", letters.reduce(String::concat));
+        assertEquals((Integer)4, letters.fold(0, (count, value) -> count + value.length(), Integer::sum));
+        assertEquals("abcd", letters.fold("", String::concat, String::concat));
+    }
+
+    @Test
+    public void testReduceRowsAndColumns() {
+        MatrixMap<Integer> mm = MatrixMap.instance(50, 6, i -> i.row() - i.column());
+        MatrixMap<Integer> rowTotals = mm.reduceRows(Integer::sum);
+        MatrixMap<Integer> columnMaxima = mm.reduceColumns(Math::max);
+        assertEquals(new Indexes(50, 1), rowTotals.size());
+        assertEquals(new Indexes(1, 6), columnMaxima.size());
+        assertEquals((Integer)(10 * 6 - 15), rowTotals.value(10, 0));
+        assertEquals((Integer)(49 - 4), columnMaxima.value(0, 4));
+        MatrixMap<String> letters = MatrixMap.from(new String[][] { {"a","b"}, {"c","d"}, {"e","f"} });
+        assertEquals(MatrixMap.from(new String[][] { {"ace","bdf"} }), letters.reduceColumns(String::concat));
+    }
+
+    @Test
+    public void testNumericKernels_RowAndColumnReductions() {
+        MatrixMap<Integer> mm = MatrixMap.instance(40, 5, i -> i.row() + i.column());
+        double[] rowTotals = NumericKernels.reduceRows(mm, Double::sum);
+        double[] columnMinima = NumericKernels.reduceColumns(mm, Math::min);
+        assertEquals(40, rowTotals.length);
+        assertEquals(3 * 5 + 10, rowTotals[3], 0.0);
+        assertEquals(5, columnMinima.length);
+        assertEquals(4.0, columnMinima[4], 0.0);
+        assertEquals(43.0, NumericKernels.reduce(mm, Math::max), 0.0);
+        assertEquals(NumericKernels.reduce(mm, Double::sum), NumericKernels.sum(mm), 0.0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testReduce_NullCombiner() {
+        MatrixMap.constant(2, 1).reduce(null);
+    }
+
+    @Test
+    public void testRowBlockTask_MergesBlocksInRowOrder() {
+        // 100000 single-cell rows are split over many blocks
+        String digits = RowBlockTask.invoke(100_000, 1, (fromRow, toRow) -> {
+            StringBuilder block = new StringBuilder();
+            for (int row = fromRow; row < toRow; row++) {
+                block.append(row % 10);
+            }
+            return block.toString();
+        }, String::concat);
+        assertEquals(100_000, digits.length());
+        assertEquals("0123456789", digits.substring(81_920, 81_930));
+    }
+
+    @Test
+    public void testPositionsOf_RowMajorOrder() {
+        MatrixMap<Integer> mm = MatrixMap.instance(5, 7, new Tiling(2), i -> (i.row() * i.column()) % 3);
+        List<Indexes> zeros = mm.positionsOf(0);
+        List<Indexes> expected = Indexes.stream(4, 6).filter(i -> (i.row() * i.column()) % 3 == 0).toList();
+        assertEquals(expected, zeros);
+        assertEquals(expected.size(), mm.count(0));
+        assertTrue(mm.contains(2));
+        assertEquals(List.of(new Indexes(1, 1), new Indexes(1, 4), new Indexes(2, 2), new Indexes(2, 5),
+                new Indexes(4, 1), new Indexes(4, 4)), mm.positionsOf(1));
+    }
+
+    @Test
+    public void testPositionsOf_AbsentValue() {
+        MatrixMap<String> mm = MatrixMap.identity(3, "Z", "I");
+        assertTrue(mm.positionsOf("Q").isEmpty());
+        assertFalse(mm.contains("Q"));
+        assertFalse(mm.contains(1));
+        assertEquals(0, mm.count("Q"));
+        assertEquals(6, mm.count("Z"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPositionsOf_ReadOnly() {
+        MatrixMap.constant(2, "X").positionsOf("X").clear();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testContains_Null() {
+        MatrixMap.constant(2, "X").contains(null);
+    }
+
+    @Test
+    public void testRow() {
+        MatrixMap<Integer> tree = MatrixMap.instance(4, 3, i -> i.row() * 3 + i.column());
+        MatrixMap<Integer> runs = MatrixMap.instance(4, 40, i -> i.column() / 20);
+        assertEquals(List.of(6, 7, 8), tree.row(2));
+        assertEquals(40, runs.row(3).size());
+        assertEquals((Integer)1, runs.row(3).get(39));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRow_OutOfBounds() {
+        MatrixMap.constant(2, 1).row(2);
+    }
+
+    @Test
+    public void testSubMatrix() {
+        MatrixMap<Integer> mm = MatrixMap.instance(5, 6, i -> i.row() * 6 + i.column());
+        MatrixMap<Integer> rectangle = mm.subMatrix(new Indexes(1, 2), new Indexes(3, 5));
+        assertEquals(MatrixMap.from(new Integer[][] { {8,9,10}, {14,15,16} }), rectangle);
+        assertEquals(mm, mm.subMatrix(Indexes.ORIGIN, mm.size()));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubMatrix_OutOfBounds() {
+        MatrixMap.constant(3, 1).subMatrix(new Indexes(1, 1), new Indexes(4, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubMatrix_Empty() {
+        MatrixMap.constant(3, 1).subMatrix(new Indexes(1, 1), new Indexes(1, 2));
+    }
 }
@@ -0,0 +1,226 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Elementwise and reduction kernels for numeric MatrixMaps.
+ * Each operand is unboxed once into a row-major double array, the kernel runs over that array,
+ * and the result is boxed once into a new MatrixMap. The array kernels use the Vector API
+ * (VectorKernels) when the jdk.incubator.vector module is present at runtime, and plain
+ * loops (ScalarKernels) otherwise.
+ */
+public final class NumericKernels {
+
+    /**
+     * The array kernels selected for the running JVM
+     */
+    static final Kernels KERNELS = kernels();
+
+    private NumericKernels() {
+    }
+
+    /**
+     * Returns the elementwise sum a + b
+     * @throws NullPointerException if a or b is null
+     * @throws IllegalArgumentException if a and b have different sizes
+     */
+    public static MatrixMap<Double> add(MatrixMap<? extends Number> a, MatrixMap<? extends Number> b) {
+        Indexes size = requireSameSize(a, b);
+        double[] result = a.doubles();
+        KERNELS.add(result, b.doubles());
+        return matrix(size, result);
+    }
+
+    /**
+     * Returns the elementwise product a * b
+     * @throws NullPointerException if a or b is null
+     * @throws IllegalArgumentException if a and b have different sizes
+     */
+    public static MatrixMap<Double> multiply(MatrixMap<? extends Number> a, MatrixMap<? extends Number> b) {
+        Indexes size = requireSameSize(a, b);
+        double[] result = a.doubles();
+        KERNELS.multiply(result, b.doubles());
+        return matrix(size, result);
+    }
+
+    /**
+     * Returns the matrix with every value of a multiplied by factor
+     * @throws NullPointerException if a is null
+     */
+    public static MatrixMap<Double> scale(MatrixMap<? extends Number> a, double factor) {
+        Objects.requireNonNull(a);
+        double[] result = a.doubles();
+        KERNELS.scale(result, factor);
+        return matrix(a.size(), result);
+    }
+
+    /**
+     * Returns the elementwise fused multiply-add a * b + c, rounded once per cell
+     * @throws NullPointerException if a, b or c is null
+     * @throws IllegalArgumentException if a, b and c do not all have the same size
+     */
+    public static MatrixMap<Double> fma(MatrixMap<? extends Number> a, MatrixMap<? extends Number> b, MatrixMap<? extends Number> c) {
+        Indexes size = requireSameSize(a, b);
+        requireSameSize(a, c);
+        double[] result = c.doubles();
+        KERNELS.fma(a.doubles(), b.doubles(), result);
+        return matrix(size, result);
+    }
+
+    /**
+     * Returns the elementwise minimum of a and b
+     * @throws NullPointerException if a or b is null
+     * @throws IllegalArgumentException if a and b have different sizes
+     */
+    public static MatrixMap<Double> min(MatrixMap<? extends Number> a, MatrixMap<? extends Number> b) {
+        Indexes size = requireSameSize(a, b);
+        double[] result = a.doubles();
+        KERNELS.min(result, b.doubles());
+        return matrix(size, result);
+    }
+
+    /**
+     * Returns the elementwise maximum of a and b
+     * @throws NullPointerException if a or b is null
+     * @throws IllegalArgumentException if a and b have different sizes
+     */
+    public static MatrixMap<Double> max(MatrixMap<? extends Number> a, MatrixMap<? extends Number> b) {
+        Indexes size = requireSameSize(a, b);
+        double[] result = a.doubles();
+        KERNELS.max(result, b.doubles());
+        return matrix(size, result);
+    }
+
+    /**
+     * Returns the sum of all values of a, computed in parallel over row blocks
+     * @throws NullPointerException if a is null
+     */
+    public static double sum(MatrixMap<? extends Number> a) {
+        Objects.requireNonNull(a);
+        double[] values = a.doubles();
+        int columns = a.size().column();
+        return RowBlockTask.invoke(values.length / columns, columns,
+                (fromRow, toRow) -> KERNELS.sum(values, fromRow * columns, (toRow - fromRow) * columns), Double::sum);
+    }
+
+    /**
+     * Returns the combination of all values of a in row-major order, computed in parallel over row blocks
+     * @param combiner an associative function combining two values
+     * @throws NullPointerException if a or combiner is null
+     */
+    public static double reduce(MatrixMap<? extends Number> a, DoubleBinaryOperator combiner) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(combiner);
+        double[] values = a.doubles();
+        int columns = a.size().column();
+        return RowBlockTask.invoke(values.length / columns, columns, (fromRow, toRow) -> {
+            double result = values[fromRow * columns];
+            for (int i = fromRow * columns + 1; i < toRow * columns; i++) {
+                result = combiner.applyAsDouble(result, values[i]);
+            }
+            return result;
+        }, (first, second) -> combiner.applyAsDouble(first, second));
+    }
+
+    /**
+     * Returns the array whose element i is the combination of the values of row i of a, e.g. row totals
+     * @param combiner an associative function combining two values
+     * @throws NullPointerException if a or combiner is null
+     */
+    public static double[] reduceRows(MatrixMap<? extends Number> a, DoubleBinaryOperator combiner) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(combiner);
+        double[] values = a.doubles();
+        int columns = a.size().column();
+        double[] results = new double[values.length / columns];
+        RowBlockTask.invoke(results.length, columns, (fromRow, toRow) -> {
+            for (int row = fromRow; row < toRow; row++) {
+                double result = values[row * columns];
+                for (int i = row * columns + 1; i < (row + 1) * columns; i++) {
+                    result = combiner.applyAsDouble(result, values[i]);
+                }
+                results[row] = result;
+            }
+            return null;
+        }, (first, second) -> null);
+        return results;
+    }
+
+    /**
+     * Returns the array whose element j is the combination of the values of column j of a, e.g. column maxima
+     * @param combiner an associative function combining two values
+     * @throws NullPointerException if a or combiner is null
+     */
+    public static double[] reduceColumns(MatrixMap<? extends Number> a, DoubleBinaryOperator combiner) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(combiner);
+        double[] values = a.doubles();
+        int columns = a.size().column();
+        return RowBlockTask.invoke(values.length / columns, columns, (fromRow, toRow) -> {
+            double[] block = Arrays.copyOfRange(values, fromRow * columns, (fromRow + 1) * columns);
+            for (int row = fromRow + 1; row < toRow; row++) {
+                for (int column = 0, i = row * columns; column < columns; column++, i++) {
+                    block[column] = combiner.applyAsDouble(block[column], values[i]);
+                }
+            }
+            return block;
+        }, (first, second) -> {
+            for (int column = 0; column < columns; column++) {
+                first[column] = combiner.applyAsDouble(first[column], second[column]);
+            }
+            return first;
+        });
+    }
+
+    /**
+     * Returns the dot product of row rowA of a and row rowB of b
+     * @throws NullPointerException if a or b is null
+     * @throws IllegalArgumentException if a and b have different column counts
+     * @throws IndexOutOfBoundsException if rowA or rowB is not a row of its matrix
+     */
+    public static double dot(MatrixMap<? extends Number> a, int rowA, MatrixMap<? extends Number> b, int rowB) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(b);
+        Indexes sizeA = a.size();
+        Indexes sizeB = b.size();
+        if (sizeA.column() != sizeB.column()) {
+            throw new IllegalArgumentException("rows have different lengths: " + sizeA.column() + " and " + sizeB.column());
+        }
+        int columns = sizeA.column();
+        double[] valuesA = a.doubles();
+        double[] valuesB = (a == b) ? valuesA : b.doubles();
+        return KERNELS.dot(valuesA, Objects.checkIndex(rowA, sizeA.row()) * columns,
+                valuesB, Objects.checkIndex(rowB, sizeB.row()) * columns, columns);
+    }
+
+    /**
+     * Returns VectorKernels if the jdk.incubator.vector module was resolved at startup
+     * (--add-modules jdk.incubator.vector), ScalarKernels otherwise
+     */
+    private static Kernels kernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall back to the scalar loops
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    private static Indexes requireSameSize(MatrixMap<?> a, MatrixMap<?> b) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(b);
+        Indexes size = a.size();
+        if (!size.equals(b.size())) {
+            throw new IllegalArgumentException("matrices have different sizes: " + size + " and " + b.size());
+        }
+        return size;
+    }
+
+    private static MatrixMap<Double> matrix(Indexes size, double[] values) {
+        Object[] cells = new Object[values.length];
+        Arrays.setAll(cells, i -> values[i]);
+        return MatrixMap.fromCells(size.row(), size.column(), cells);
+    }
+}
@@ -1,9 +1,10 @@
 import java.util.*;
+import java.util.function.BiConsumer;
 
 // Can change to cover test cases for bugged program
-public final class RoamingMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
+public final class RoamingMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements NavigableMap<K, V>, SortedStore<K, V> {
 
-    private final Map<K, V> map;
+    private final NavigableMap<K, V> map;
 
     public RoamingMap() {
         map = new TreeMap<>();
@@ -15,6 +16,12 @@ public final class RoamingMap<K extends Comparable<K>, V> extends TreeMap<K, V>
         return map.get(key);
     }
 
+    @Override
+    public boolean containsKey(Object key) {
+        Objects.requireNonNull(key);
+        return map.containsKey(key);
+    }
+
     @Override
     public int size() {
         return map.size();
@@ -27,17 +34,169 @@ public final class RoamingMap<K extends Comparable<K>, V> extends TreeMap<K, V>
         return map.put(key, value);
     }
 
+    @Override
+    public V remove(Object key) {
+        Objects.requireNonNull(key);
+        return map.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
     @Override
     public Set<K> keySet() {
         return map.keySet();
     }
 
+    @Override
+    public Collection<V> values() {
+        return map.values();
+    }
+
     @Override
     public Set<Map.Entry<K, V>> entrySet() {
         return map.entrySet();
     }
 
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    @Override
+    public Iterable<Map.Entry<K, V>> range(K fromKey, K toKey) {
+        if (Objects.requireNonNull(fromKey).compareTo(Objects.requireNonNull(toKey)) > 0) {
+            return Collections.emptySet();
+        }
+        return subMap(fromKey, toKey).entrySet();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return map.comparator();
+    }
+
+    @Override
+    public K firstKey() {
+        return map.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return map.lastKey();
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return map.firstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return map.lastEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return map.pollFirstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return map.pollLastEntry();
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return map.lowerEntry(Objects.requireNonNull(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return map.lowerKey(Objects.requireNonNull(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return map.floorEntry(Objects.requireNonNull(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return map.floorKey(Objects.requireNonNull(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return map.ceilingEntry(Objects.requireNonNull(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return map.ceilingKey(Objects.requireNonNull(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return map.higherEntry(Objects.requireNonNull(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return map.higherKey(Objects.requireNonNull(key));
+    }
+
+    // The navigable views are read-only: writing through them would bypass the null checks of put
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return Collections.unmodifiableNavigableMap(map.descendingMap());
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return Collections.unmodifiableNavigableSet(map.navigableKeySet());
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return Collections.unmodifiableNavigableSet(map.descendingKeySet());
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return Collections.unmodifiableNavigableMap(
+                map.subMap(Objects.requireNonNull(fromKey), fromInclusive, Objects.requireNonNull(toKey), toInclusive));
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return Collections.unmodifiableNavigableMap(map.headMap(Objects.requireNonNull(toKey), inclusive));
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return Collections.unmodifiableNavigableMap(map.tailMap(Objects.requireNonNull(fromKey), inclusive));
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
     public String toString() {
         return map.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * RowBlockTask splits the rows of a matrix into blocks of contiguous rows, computes a result for
+ * each block on the common fork/join pool, and merges the results of adjacent blocks in row order
+ * @param <R> the type of the results
+ */
+final class RowBlockTask<R> extends RecursiveTask<R> {
+
+    /**
+     * The computation of one block of rows
+     */
+    @FunctionalInterface
+    interface Block<R> {
+        R compute(int fromRow, int toRow);
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of cells below which a block is computed on the current thread
+     */
+    private static final int BLOCK_CELLS = 1 << 13;
+
+    private final int fromRow;
+    private final int toRow;
+    private final int rowsPerBlock;
+    private final Block<R> block;
+    private final BinaryOperator<R> merge;
+
+    private RowBlockTask(int fromRow, int toRow, int rowsPerBlock, Block<R> block, BinaryOperator<R> merge) {
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.rowsPerBlock = rowsPerBlock;
+        this.block = block;
+        this.merge = merge;
+    }
+
+    /**
+     * Returns the merged result of block over all rows of a rows x columns matrix
+     * @param merge an associative function merging the results of a block and of the block after it
+     */
+    static <R> R invoke(int rows, int columns, Block<R> block, BinaryOperator<R> merge) {
+        Objects.requireNonNull(block);
+        Objects.requireNonNull(merge);
+        int rowsPerBlock = Math.max(1, BLOCK_CELLS / columns);
+        return ForkJoinPool.commonPool().invoke(new RowBlockTask<>(0, rows, rowsPerBlock, block, merge));
+    }
+
+    @Override
+    protected R compute() {
+        if (toRow - fromRow <= rowsPerBlock) {
+            return block.compute(fromRow, toRow);
+        }
+        int middle = (fromRow + toRow) >>> 1;
+        RowBlockTask<R> first = new RowBlockTask<>(fromRow, middle, rowsPerBlock, block, merge);
+        first.fork();
+        R second = new RowBlockTask<>(middle, toRow, rowsPerBlock, block, merge).compute();
+        return merge.apply(first.join(), second);
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.Arrays;
+
+/**
+ * RunLengthMap is a grid store for matrices whose rows hold long runs of the same value instance
+ * (compared by identity, so that equal but distinct values are never aliased):
+ * each row stores its runs as the exclusive end column and the value of each run, and a cell is
+ * decoded by binary search over the run ends of its row
+ * @param <T> the type of the values
+ */
+final class RunLengthMap<T> extends GridMap<T> {
+
+    private static final int[] NO_ENDS = new int[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final int[][] ends;
+    private final Object[][] values;
+    private final int[] runs;
+
+    RunLengthMap(int rows, int columns) {
+        super(rows, columns);
+        ends = new int[rows][];
+        values = new Object[rows][];
+        runs = new int[rows];
+        Arrays.fill(ends, NO_ENDS);
+        Arrays.fill(values, NO_VALUES);
+    }
+
+    /**
+     * Returns the total number of runs over all rows, empty cells included
+     */
+    int runs() {
+        return Arrays.stream(runs).sum();
+    }
+
+    private int run(int row, int column) {
+        int index = Arrays.binarySearch(ends[row], 0, runs[row], column);
+        // a run ending (exclusively) at column does not contain it, so the match is the next run
+        return (index >= 0) ? index + 1 : -index - 1;
+    }
+
+    private int rowLength(int row) {
+        return (runs[row] == 0) ? 0 : ends[row][runs[row] - 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    T cell(int row, int column) {
+        return (column < rowLength(row)) ? (T) values[row][run(row, column)] : null;
+    }
+
+    /**
+     * Applies action to every non-empty cell, walking the runs of each row without searching them
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    void forEachCell(IndexedConsumer<? super T> action) {
+        for (int row = 0; row < runs.length; row++) {
+            for (int run = 0, column = 0; run < runs[row]; run++) {
+                T value = (T) values[row][run];
+                for (int end = ends[row][run]; column < end; column++) {
+                    if (value != null) {
+                        action.accept(row, column, value);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    T setCell(int row, int column, T value) {
+        int length = rowLength(row);
+        if (column == length) {
+            append(row, value);
+            return null;
+        }
+        if (column > length) {
+            append(row, null);
+            ends[row][runs[row] - 1] = column;
+            append(row, value);
+            return null;
+        }
+        T previous = cell(row, column);
+        if (value != previous) {
+            rewrite(row, column, value);
+        }
+        return previous;
+    }
+
+    /**
+     * Extends the row by one cell holding value (null for an empty cell)
+     */
+    private void append(int row, Object value) {
+        int count = runs[row];
+        if (count > 0 && values[row][count - 1] == value) {
+            ends[row][count - 1]++;
+            return;
+        }
+        if (count == ends[row].length) {
+            int capacity = Math.max(4, count * 2);
+            ends[row] = Arrays.copyOf(ends[row], capacity);
+            values[row] = Arrays.copyOf(values[row], capacity);
+        }
+        ends[row][count] = (count == 0) ? 1 : ends[row][count - 1] + 1;
+        values[row][count] = value;
+        runs[row] = count + 1;
+    }
+
+    /**
+     * Re-encodes the row with the value at column replaced
+     */
+    private void rewrite(int row, int column, T value) {
+        int length = rowLength(row);
+        Object[] decoded = new Object[length];
+        for (int run = 0, from = 0; run < runs[row]; from = ends[row][run++]) {
+            Arrays.fill(decoded, from, ends[row][run], values[row][run]);
+        }
+        decoded[column] = value;
+        runs[row] = 0;
+        for (Object cell : decoded) {
+            append(row, cell);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * ScalarKernels runs the double[] kernels of NumericKernels as plain counted loops.
+ * The reductions are unrolled over four independent accumulators, so that consecutive
+ * additions do not wait on each other; they are not vectorized.
+ */
+final class ScalarKernels implements Kernels {
+
+    /**
+     * Number of independent accumulators used by the reductions
+     */
+    private static final int LANES = 4;
+
+    @Override
+    public void add(double[] target, double[] operand) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += operand[i];
+        }
+    }
+
+    @Override
+    public void multiply(double[] target, double[] operand) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] *= operand[i];
+        }
+    }
+
+    @Override
+    public void scale(double[] target, double factor) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] *= factor;
+        }
+    }
+
+    @Override
+    public void fma(double[] a, double[] b, double[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = Math.fma(a[i], b[i], target[i]);
+        }
+    }
+
+    @Override
+    public void min(double[] target, double[] operand) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = Math.min(target[i], operand[i]);
+        }
+    }
+
+    @Override
+    public void max(double[] target, double[] operand) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = Math.max(target[i], operand[i]);
+        }
+    }
+
+    @Override
+    public double sum(double[] values, int from, int length) {
+        double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = from;
+        int to = from + length;
+        for (; i + LANES <= to; i += LANES) {
+            sum0 += values[i];
+            sum1 += values[i + 1];
+            sum2 += values[i + 2];
+            sum3 += values[i + 3];
+        }
+        double result = (sum0 + sum1) + (sum2 + sum3);
+        for (; i < to; i++) {
+            result += values[i];
+        }
+        return result;
+    }
+
+    @Override
+    public double dot(double[] a, int fromA, double[] b, int fromB, int length) {
+        double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            sum0 += a[fromA + i] * b[fromB + i];
+            sum1 += a[fromA + i + 1] * b[fromB + i + 1];
+            sum2 += a[fromA + i + 2] * b[fromB + i + 2];
+            sum3 += a[fromA + i + 3] * b[fromB + i + 3];
+        }
+        double result = (sum0 + sum1) + (sum2 + sum3);
+        for (; i < length; i++) {
+            result += a[fromA + i] * b[fromB + i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * SortedStore is the storage interface guarded by Barricade: a map from comparable keys to non-null
+ * values, iterated in key order. Its methods share their signatures with Map, so that RoamingMap,
+ * the array-backed GridMaps, or a store over a ConcurrentSkipListMap can all implement it.
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public interface SortedStore<K extends Comparable<K>, V> {
+
+    /**
+     * Returns the value associated with key, or null if there is none
+     * @throws NullPointerException if key is null
+     */
+    V get(Object key);
+
+    /**
+     * Associates value with key
+     * @return the previous value associated with key, or null if there was none
+     * @throws NullPointerException if key or value is null
+     */
+    V put(K key, V value);
+
+    /**
+     * Returns the number of entries of this store
+     */
+    int size();
+
+    /**
+     * Returns a view of the entries of this store, in key order
+     */
+    Set<Map.Entry<K, V>> entrySet();
+
+    /**
+     * Returns the largest key of this store
+     * @throws NoSuchElementException if this store is empty
+     */
+    K lastKey();
+
+    /**
+     * Returns the smallest key strictly greater than key, or null if there is none.
+     * The default implementation scans entrySet; stores with indexed access should override it.
+     * @throws NullPointerException if key is null
+     */
+    default K higherKey(K key) {
+        Objects.requireNonNull(key);
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (entry.getKey().compareTo(key) > 0) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Applies action to every entry of this store, in key order
+     * @throws NullPointerException if action is null
+     */
+    void forEach(BiConsumer<? super K, ? super V> action);
+
+    /**
+     * Returns the entries with keys from fromKey (inclusive) to toKey (exclusive), in key order;
+     * the range is empty, rather than invalid, when fromKey is not less than toKey.
+     * The default implementation scans entrySet up to toKey; stores with indexed access should override it.
+     * @throws NullPointerException if fromKey or toKey is null
+     */
+    default Iterable<Map.Entry<K, V>> range(K fromKey, K toKey) {
+        Objects.requireNonNull(fromKey);
+        Objects.requireNonNull(toKey);
+        return () -> new Iterator<>() {
+            private final Iterator<Map.Entry<K, V>> entries = entrySet().iterator();
+            private Map.Entry<K, V> next = advance();
+
+            private Map.Entry<K, V> advance() {
+                while (entries.hasNext()) {
+                    Map.Entry<K, V> entry = entries.next();
+                    if (entry.getKey().compareTo(toKey) >= 0) {
+                        return null;
+                    }
+                    if (entry.getKey().compareTo(fromKey) >= 0) {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<K, V> entry = next;
+                next = advance();
+                return entry;
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.Objects;
+
+/**
+ * TiledMap is a grid store that keeps each square tile of the matrix in its own
+ * contiguous array, so that both row and column neighbours of a cell are close in memory.
+ * Tiles on the bottom and right edges only allocate the part of the matrix they cover,
+ * so a tile size larger than the matrix costs no more than the matrix itself
+ * @param <T> the type of the values
+ */
+final class TiledMap<T> extends GridMap<T> {
+
+    private final Tiling tiling;
+    private final int tileColumns;
+    private final Object[][] tiles;
+
+    TiledMap(int rows, int columns, Tiling tiling) {
+        super(rows, columns);
+        this.tiling = Objects.requireNonNull(tiling);
+        this.tileColumns = tiling.tiles(columns);
+        this.tiles = new Object[tiling.tiles(rows) * tileColumns][];
+    }
+
+    Tiling tiling() {
+        return tiling;
+    }
+
+    private int tileIndex(int row, int column) {
+        return (row / tiling.size()) * tileColumns + column / tiling.size();
+    }
+
+    /**
+     * Returns the number of columns of the matrix covered by the tile holding column
+     */
+    private int tileWidth(int column) {
+        int size = tiling.size();
+        return Math.min(size, columns() - column / size * size);
+    }
+
+    /**
+     * Returns the row-major position of the cell inside the (possibly clipped) tile that holds it
+     */
+    private int offset(int row, int column) {
+        int size = tiling.size();
+        return (row % size) * tileWidth(column) + column % size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    T cell(int row, int column) {
+        Object[] tile = tiles[tileIndex(row, column)];
+        return (tile == null) ? null : (T) tile[offset(row, column)];
+    }
+
+    /**
+     * Applies action to every non-empty cell tile by tile, in the order of Tiling.stream
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    void forEachCell(IndexedConsumer<? super T> action) {
+        int size = tiling.size();
+        for (int index = 0; index < tiles.length; index++) {
+            Object[] tile = tiles[index];
+            if (tile == null) {
+                continue;
+            }
+            int fromRow = (index / tileColumns) * size;
+            int fromColumn = (index % tileColumns) * size;
+            int toRow = Math.min(fromRow + size, rows());
+            int toColumn = Math.min(fromColumn + size, columns());
+            int width = toColumn - fromColumn;
+            for (int row = fromRow; row < toRow; row++) {
+                for (int column = fromColumn, offset = (row - fromRow) * width; column < toColumn; column++, offset++) {
+                    if (tile[offset] != null) {
+                        action.accept(row, column, (T) tile[offset]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    T setCell(int row, int column, T value) {
+        int index = tileIndex(row, column);
+        if (tiles[index] == null) {
+            int size = tiling.size();
+            int height = Math.min(size, rows() - row / size * size);
+            tiles[index] = new Object[height * tileWidth(column)];
+        }
+        int offset = offset(row, column);
+        T previous = (T) tiles[index][offset];
+        tiles[index][offset] = value;
+        return previous;
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Tiling is the record that describes a blocked layout of a matrix into square tiles
+ * @param size the number of rows and columns of each tile
+ */
+public record Tiling(int size) {
+
+    public static final Tiling DEFAULT = new Tiling(32);
+
+    /**
+     * Largest tile size whose size * size cells still fit in one array
+     */
+    public static final int MAX_SIZE = 46340;
+
+    /**
+     * Creates a tiling with the given tile size
+     * @throws IllegalArgumentException if size is not positive or is larger than MAX_SIZE
+     */
+    public Tiling {
+        if (size <= 0) {
+            throw new IllegalArgumentException("tile size must be positive: " + size);
+        }
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("tile size must be at most " + MAX_SIZE + ": " + size);
+        }
+    }
+
+    /**
+     * Returns the number of tiles needed to cover the given length
+     * @param length the number of rows or columns of the matrix
+     * @return the number of tiles needed to cover the given length
+     */
+    public int tiles(int length) {
+        return (length + size - 1) / size;
+    }
+
+    /**
+     * Returns the indexes of the tile that contains the input indexes
+     * @param indexes the input indexes
+     * @return the indexes of the tile that contains the input indexes
+     * @throws NullPointerException if indexes is null
+     */
+    public Indexes tile(Indexes indexes) {
+        Objects.requireNonNull(indexes);
+        return new Indexes(indexes.row() / size, indexes.column() / size);
+    }
+
+    /**
+     * Returns the position of the input indexes inside its tile, in row-major order
+     * @param indexes the input indexes
+     * @return the position of the input indexes inside its tile, between 0 and size * size - 1
+     * @throws NullPointerException if indexes is null
+     */
+    public int offset(Indexes indexes) {
+        Objects.requireNonNull(indexes);
+        return offset(indexes.row(), indexes.column());
+    }
+
+    int offset(int row, int column) {
+        return (row % size) * size + (column % size);
+    }
+
+    /**
+     * Returns the comparator that orders indexes tile by tile (row-major over tiles),
+     * and row-major inside each tile
+     * @return the block-aware comparator
+     */
+    public Comparator<Indexes> comparator() {
+        return Comparator.comparing(this::tile).thenComparingInt(this::offset);
+    }
+
+    /**
+     * Returns stream of all indexes of a rows x columns matrix, in block-aware order
+     * @param rows the row count of the matrix
+     * @param columns the column count of the matrix
+     * @return stream of all indexes of the matrix, tile by tile
+     */
+    public Stream<Indexes> stream(int rows, int columns) {
+        int tileColumns = tiles(columns);
+        return IntStream.range(0, tiles(rows) * tileColumns).boxed().flatMap(tile -> {
+            int fromRow = (tile / tileColumns) * size();
+            int fromColumn = (tile % tileColumns) * size();
+            return Indexes.stream(new Indexes(fromRow, fromColumn),
+                    new Indexes(Math.min(fromRow + size(), rows) - 1, Math.min(fromColumn + size(), columns) - 1));
+        });
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * TrieMap is a persistent grid store: the row-major positions of the cells are the keys of
+ * a 32-way trie, and every update copies only the nodes on the path to the updated cells, so that
+ * versions returned by with and withRange share all untouched nodes with the original
+ * @param <T> the type of the values
+ */
+final class TrieMap<T> extends GridMap<T> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /**
+     * Shift of the index bits used at the root; the leaves are at shift 0
+     */
+    private final int rootShift;
+    private Object[] root;
+
+    private TrieMap(int rows, int columns, int count, int rootShift, Object[] root) {
+        super(rows, columns, count);
+        this.rootShift = rootShift;
+        this.root = root;
+    }
+
+    TrieMap(int rows, int columns) {
+        this(rows, columns, 0, rootShift(Math.multiplyExact(rows, columns)), new Object[WIDTH]);
+    }
+
+    /**
+     * Returns a TrieMap holding the same entries as the given rows x columns store
+     */
+    static <T> TrieMap<T> copyOf(int rows, int columns, SortedStore<Indexes, T> source) {
+        Objects.requireNonNull(source);
+        Object[] cells = new Object[rows * columns];
+        IndexedConsumer<T> copy = (row, column, value) -> cells[row * columns + column] = value;
+        if (source instanceof GridMap<T> grid) {
+            grid.forEachCell(copy);
+        } else {
+            source.forEach((indexes, value) -> copy.accept(indexes.row(), indexes.column(), value));
+        }
+        return of(rows, columns, cells);
+    }
+
+    /**
+     * Returns a TrieMap holding the given row-major cells (null for an empty cell)
+     */
+    static <T> TrieMap<T> of(int rows, int columns, Object[] cells) {
+        if (cells.length != Math.multiplyExact(rows, columns)) {
+            throw new IllegalArgumentException("expected " + rows * columns + " cells, got " + cells.length);
+        }
+        int count = (int) Arrays.stream(cells).filter(Objects::nonNull).count();
+        int rootShift = rootShift(cells.length);
+        return new TrieMap<>(rows, columns, count, rootShift, build(cells, 0, rootShift));
+    }
+
+    private static int rootShift(int cells) {
+        int shift = 0;
+        while ((long) WIDTH << shift < cells) {
+            shift += BITS;
+        }
+        return shift;
+    }
+
+    /**
+     * Returns the node covering the positions from position on, at the given shift, built from cells
+     */
+    private static Object[] build(Object[] cells, int position, int shift) {
+        Object[] node = new Object[WIDTH];
+        int span = 1 << shift;
+        for (int i = 0; i < WIDTH && position + i * span < cells.length; i++) {
+            node[i] = (shift == 0) ? cells[position + i] : build(cells, position + i * span, shift - BITS);
+        }
+        return node;
+    }
+
+    private int position(int row, int column) {
+        return row * columns() + column;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    T cell(int row, int column) {
+        int position = position(row, column);
+        Object[] node = root;
+        for (int shift = rootShift; shift > 0 && node != null; shift -= BITS) {
+            node = (Object[]) node[(position >>> shift) & MASK];
+        }
+        return (node == null) ? null : (T) node[position & MASK];
+    }
+
+    /**
+     * Stores value by replacing the path to its cell, so that versions sharing nodes with this one are unaffected
+     */
+    @Override
+    T setCell(int row, int column, T value) {
+        T previous = cell(row, column);
+        root = assoc(root, rootShift, position(row, column), value);
+        return previous;
+    }
+
+    private static Object[] assoc(Object[] node, int shift, int position, Object value) {
+        Object[] copy = (node == null) ? new Object[WIDTH] : node.clone();
+        int slot = (position >>> shift) & MASK;
+        copy[slot] = (shift == 0) ? value : assoc((Object[]) copy[slot], shift - BITS, position, value);
+        return copy;
+    }
+
+    /**
+     * Returns a new version of this map with value at (row, column), in O(log n)
+     * @throws NullPointerException if value is null
+     * @throws IndexOutOfBoundsException if (row, column) is outside of the grid
+     */
+    TrieMap<T> with(int row, int column, T value) {
+        Objects.requireNonNull(value);
+        Objects.checkIndex(row, rows());
+        Objects.checkIndex(column, columns());
+        int count = (cell(row, column) == null) ? size() + 1 : size();
+        return new TrieMap<>(rows(), columns(), count, rootShift, assoc(root, rootShift, position(row, column), value));
+    }
+
+    /**
+     * Returns a new version of this map with the given values at the consecutive row-major positions
+     * starting at (row, column); each node on the updated range is copied once
+     * @throws NullPointerException if values or any of its elements is null
+     * @throws IndexOutOfBoundsException if the range is outside of the grid
+     */
+    TrieMap<T> withRange(int row, int column, List<? extends T> values) {
+        Objects.requireNonNull(values);
+        values.forEach(Objects::requireNonNull);
+        int from = position(Objects.checkIndex(row, rows()), Objects.checkIndex(column, columns()));
+        Objects.checkFromIndexSize(from, values.size(), rows() * columns());
+        int count = size();
+        for (int i = 0; i < values.size(); i++) {
+            if (cell((from + i) / columns(), (from + i) % columns()) == null) {
+                count++;
+            }
+        }
+        return new TrieMap<>(rows(), columns(), count, rootShift, assocRange(root, rootShift, 0, from, values));
+    }
+
+    /**
+     * Copies node, which covers the positions from nodeStart on, with values written from position from on
+     */
+    private static Object[] assocRange(Object[] node, int shift, int nodeStart, int from, List<?> values) {
+        Object[] copy = (node == null) ? new Object[WIDTH] : node.clone();
+        int span = 1 << shift;
+        int to = from + values.size();
+        for (int slot = Math.max(0, (from - nodeStart) / span); slot < WIDTH && nodeStart + slot * span < to; slot++) {
+            int childStart = nodeStart + slot * span;
+            copy[slot] = (shift == 0)
+                    ? values.get(childStart - from)
+                    : assocRange((Object[]) copy[slot], shift - BITS, childStart, from, values);
+        }
+        return copy;
+    }
+}
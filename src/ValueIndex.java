@@ -0,0 +1,81 @@
+import java.util.*;
+
+/**
+ * ValueIndex is the inverted index of a MatrixMap: for each distinct value, the sorted row-major
+ * positions (row * columns + column) of the cells holding it, packed into an int array
+ */
+final class ValueIndex {
+
+    /**
+     * Growable array of positions, used while the index is built
+     */
+    private static final class Positions {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int position) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = position;
+        }
+
+        int[] toSortedArray() {
+            int[] positions = Arrays.copyOf(data, size);
+            Arrays.sort(positions);
+            return positions;
+        }
+    }
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final int columns;
+    private final Map<Object, int[]> positions;
+
+    private ValueIndex(int columns, Map<Object, int[]> positions) {
+        this.columns = columns;
+        this.positions = positions;
+    }
+
+    /**
+     * Returns the inverted index of the given matrix, built in one walk over its storage
+     */
+    static ValueIndex of(MatrixMap<?> matrix) {
+        int columns = Objects.requireNonNull(matrix).size().column();
+        Map<Object, Positions> builders = new HashMap<>();
+        matrix.forEach((row, column, value) -> builders.computeIfAbsent(value, key -> new Positions()).add(row * columns + column));
+        Map<Object, int[]> positions = new HashMap<>(builders.size() * 4 / 3 + 1);
+        builders.forEach((value, builder) -> positions.put(value, builder.toSortedArray()));
+        return new ValueIndex(columns, positions);
+    }
+
+    private int[] positionsOf(Object value) {
+        return positions.getOrDefault(value, NO_POSITIONS);
+    }
+
+    /**
+     * Returns the number of cells holding value
+     */
+    int count(Object value) {
+        return positionsOf(value).length;
+    }
+
+    /**
+     * Returns a read-only list of the indexes of the cells holding value, in row-major order
+     */
+    List<Indexes> indexesOf(Object value) {
+        int[] found = positionsOf(value);
+        return new AbstractList<>() {
+            @Override
+            public Indexes get(int index) {
+                int position = found[index];
+                return new Indexes(position / columns, position % columns);
+            }
+
+            @Override
+            public int size() {
+                return found.length;
+            }
+        };
+    }
+}
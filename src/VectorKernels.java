@@ -0,0 +1,117 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorKernels runs the double[] kernels of NumericKernels with the Vector API, one
+ * preferred-width vector of doubles at a time, and finishes each array with a scalar tail.
+ * It is only loaded by NumericKernels when the jdk.incubator.vector module is present.
+ */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(double[] target, double[] operand) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(target.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, target, i).add(DoubleVector.fromArray(SPECIES, operand, i)).intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] += operand[i];
+        }
+    }
+
+    @Override
+    public void multiply(double[] target, double[] operand) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(target.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, target, i).mul(DoubleVector.fromArray(SPECIES, operand, i)).intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] *= operand[i];
+        }
+    }
+
+    @Override
+    public void scale(double[] target, double factor) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(target.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, target, i).mul(factor).intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] *= factor;
+        }
+    }
+
+    @Override
+    public void fma(double[] a, double[] b, double[] target) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(target.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i)
+                    .fma(DoubleVector.fromArray(SPECIES, b, i), DoubleVector.fromArray(SPECIES, target, i))
+                    .intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] = Math.fma(a[i], b[i], target[i]);
+        }
+    }
+
+    @Override
+    public void min(double[] target, double[] operand) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(target.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, target, i).min(DoubleVector.fromArray(SPECIES, operand, i)).intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] = Math.min(target[i], operand[i]);
+        }
+    }
+
+    @Override
+    public void max(double[] target, double[] operand) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(target.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, target, i).max(DoubleVector.fromArray(SPECIES, operand, i)).intoArray(target, i);
+        }
+        for (; i < target.length; i++) {
+            target[i] = Math.max(target[i], operand[i]);
+        }
+    }
+
+    /**
+     * Sums lane-wise into one vector accumulator and reduces its lanes once at the end,
+     * so the result may differ from the scalar sum in the last bits
+     */
+    @Override
+    public double sum(double[] values, int from, int length) {
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            sums = sums.add(DoubleVector.fromArray(SPECIES, values, from + i));
+        }
+        double result = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += values[from + i];
+        }
+        return result;
+    }
+
+    /**
+     * Accumulates lane-wise products with fused multiply-adds and reduces the lanes once at the end,
+     * so the result may differ from the scalar dot product in the last bits
+     */
+    @Override
+    public double dot(double[] a, int fromA, double[] b, int fromB, int length) {
+        DoubleVector sums = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            sums = DoubleVector.fromArray(SPECIES, a, fromA + i).fma(DoubleVector.fromArray(SPECIES, b, fromB + i), sums);
+        }
+        double result = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += a[fromA + i] * b[fromB + i];
+        }
+        return result;
+    }
+}